@@ -0,0 +1,83 @@
+package de.noxafy.utils.data;
+
+import de.noxafy.voc.core.fileManager.BenchmarkDeckFiles;
+import de.noxafy.voc.core.model.BenchmarkDecks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing whole decks as text, without parsing them.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileManagerBenchmark {
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int size;
+
+	private TextFileManager source;
+	private TextFileManager target;
+	private String content;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		File deck = BenchmarkDeckFiles.write(BenchmarkDecks.generate(size, 42));
+		source = new TextFileManager(deck);
+		content = source.readData();
+		File copy = File.createTempFile("deck", ".csv");
+		copy.deleteOnExit();
+		target = new TextFileManager(copy);
+	}
+
+	@Benchmark
+	public String readData() {
+		return source.readData();
+	}
+
+	@Benchmark
+	public void writeData() {
+		target.writeData(content);
+	}
+
+	private static final class TextFileManager extends FileManager<String> {
+
+		TextFileManager(File file) {
+			super(file);
+		}
+
+		@NotNull
+		@Override
+		protected String onLoad(@Nullable String data) {
+			return data == null ? "" : data;
+		}
+
+		@NotNull
+		@Override
+		protected String onWrite(@NotNull String data) {
+			return data;
+		}
+	}
+}
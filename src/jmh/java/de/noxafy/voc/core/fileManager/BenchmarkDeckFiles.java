@@ -0,0 +1,40 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.voc.core.model.VocabularyBase;
+import de.noxafy.voc.core.model.VocabularyStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes synthetic decks for benchmarks.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class BenchmarkDeckFiles {
+
+	private BenchmarkDeckFiles() {
+	}
+
+	/**
+	 * @return the given vocs as written by {@link VocabularyFileManager}
+	 */
+	public static String toCsv(VocabularyStore vocs, File file) {
+		return VocabularyFileManager.getInstance(file.getAbsolutePath()).onWrite(new VocabularyBase(vocs));
+	}
+
+	/**
+	 * Writes the given vocs to a new temporary file, deleted on exit along with its snapshot, journal and statistics.
+	 */
+	public static File write(VocabularyStore vocs) throws IOException {
+		File file = File.createTempFile("deck", ".csv");
+		for (String suffix : new String[] { "", ".snapshot", ".journal", ".stats" }) {
+			new File(file.getPath() + suffix).deleteOnExit();
+		}
+		Files.write(file.toPath(), toCsv(vocs, file).getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,70 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.data.WriteBehind;
+import de.noxafy.voc.core.model.BenchmarkDecks;
+import de.noxafy.voc.core.model.VocabularyBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting whole decks. The biggest decks need a big heap, e.g. <code>-jvmArgsAppend -Xmx12g</code>.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VocabularyFileManagerBenchmark {
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int size;
+
+	private VocabularyFileManager fileManager;
+	private String content;
+	private VocabularyBase base;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		File deck = BenchmarkDeckFiles.write(BenchmarkDecks.generate(size, 42));
+		fileManager = VocabularyFileManager.getInstance(deck.getAbsolutePath());
+		content = new String(Files.readAllBytes(deck.toPath()), StandardCharsets.UTF_8);
+		base = fileManager.onLoad(content);
+	}
+
+	@TearDown(Level.Iteration)
+	public void flush() {
+		// snapshots taken while loading are written in background
+		WriteBehind.flush();
+	}
+
+	@Benchmark
+	public VocabularyBase onLoad() {
+		return fileManager.onLoad(content);
+	}
+
+	@Benchmark
+	public String onWrite() {
+		return fileManager.onWrite(base);
+	}
+}
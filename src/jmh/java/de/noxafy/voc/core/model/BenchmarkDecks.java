@@ -0,0 +1,42 @@
+package de.noxafy.voc.core.model;
+
+import java.util.Random;
+
+/**
+ * Synthetic decks for benchmarks, the same for the same size and seed.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class BenchmarkDecks {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+	// fixed, so decks do not depend on when they are generated
+	public static final long NOW = 1792281600000L;
+
+	private BenchmarkDecks() {
+	}
+
+	/**
+	 * Creates a deck with one fifth new vocs. The others are asked within the last year, with succeeded in a row
+	 * values spread over all levels. As left by completed sessions, none is unknown.
+	 */
+	public static VocabularyStore generate(int size, long seed) {
+		Random rand = new Random(seed);
+		VocabularyStore store = new VocabularyStore(size, size * 24);
+		for (int i = 0; i < size; i++) {
+			long added = NOW - 365 * DAY - (long) (rand.nextDouble() * 365 * DAY);
+			if (rand.nextInt(5) == 0) {
+				store.add("word" + i, "meaning" + i, "", added, 0, 0, 0, 0);
+			}
+			else {
+				long lastAsked = NOW - (long) (rand.nextDouble() * 365 * DAY);
+				int siar = 3 + rand.nextInt(14);
+				int asked = siar + rand.nextInt(10);
+				store.add("word" + i, "meaning" + i, i % 3 == 0 ? "mnemonic" + i : "", added, lastAsked, asked,
+						asked - siar, siar);
+			}
+		}
+		return store;
+	}
+}
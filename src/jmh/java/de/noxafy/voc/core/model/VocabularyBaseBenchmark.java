@@ -0,0 +1,140 @@
+package de.noxafy.voc.core.model;
+
+import de.noxafy.utils.ManualClock;
+import de.noxafy.voc.core.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling of a session: picking up the vocs todo, choosing today's vocs and the per answer path. Time and randomness
+ * are fixed, so each run schedules the same vocs.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VocabularyBaseBenchmark {
+
+	private static final Settings settings = new Settings(30, 10, false);
+
+	@State(Scope.Benchmark)
+	public static class Deck {
+		@Param({ "1000", "100000", "1000000", "10000000" })
+		public int size;
+
+		VocabularyStore store;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			store = BenchmarkDecks.generate(size, 42);
+		}
+
+		VocabularyBase newBase() {
+			VocabularyBase base = new VocabularyBase(store);
+			base.setClock(new ManualClock(BenchmarkDecks.NOW));
+			base.setRandom(new Random(42));
+			return base;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Todo {
+		VocabularyBase base;
+
+		@Setup(Level.Trial)
+		public void setUp(Deck deck) {
+			base = deck.newBase();
+		}
+	}
+
+	/**
+	 * A base with the vocs todo picked up, but today's vocs not chosen yet.
+	 */
+	@State(Scope.Thread)
+	public static class Today {
+		VocabularyBase base;
+
+		@Setup(Level.Invocation)
+		public void setUp(Deck deck) {
+			base = deck.newBase();
+			base.generateTodo();
+		}
+	}
+
+	/**
+	 * A base in the middle of a session.
+	 */
+	@State(Scope.Thread)
+	public static class Session {
+		VocabularyBase base;
+
+		@Setup(Level.Trial)
+		public void setUp(Deck deck) {
+			base = deck.newBase();
+			base.generateTodo();
+			base.generateVocsForToday(settings);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Rating {
+		long now = BenchmarkDecks.NOW;
+		int index;
+
+		/**
+		 * @return the next voc to be rated, all at the same time like in a session, but at a new time for each pass
+		 * over the deck, so no rating is cached
+		 */
+		int next(int size) {
+			if (index == size) {
+				index = 0;
+				now++;
+			}
+			return index++;
+		}
+	}
+
+	@Benchmark
+	public VocabularyBase generateTodo(Todo todo) {
+		todo.base.generateTodo();
+		return todo.base;
+	}
+
+	@Benchmark
+	public VocabularyBase generateVocsForToday(Today today) {
+		today.base.generateVocsForToday(settings);
+		return today.base;
+	}
+
+	@Benchmark
+	public Vocabulary nextAndUpdate(Session session) {
+		Vocabulary voc = session.base.getNextVocabulary();
+		// failing keeps the voc in today's list, so every answer takes the same path
+		voc.failed();
+		session.base.update();
+		return voc;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public double getRating(Deck deck, Rating rating) {
+		return deck.store.get(rating.next(deck.size)).getRating(rating.now);
+	}
+}
@@ -0,0 +1,157 @@
+package de.noxafy.utils;
+
+import java.util.Collection;
+
+/**
+ * Prints log messages on a single daemon thread, so logging costs the caller only a slot in a ring buffer of fixed
+ * size. The slots are allocated once and reused. Callers block only while the buffer is full, so no message is lost.
+ * Prefixes and time stamps are built by the printing thread from the time a message was logged at.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class AsyncAppender {
+
+	// power of two
+	private static final int CAPACITY = 4096;
+	private static final int MASK = CAPACITY - 1;
+
+	private final Collection<Log> loggers;
+	private final Entry[] ring = new Entry[CAPACITY];
+	// first entry not printed yet and number of entries not printed yet, entries are only freed after printing
+	private int head = 0;
+	private int size = 0;
+	private Thread worker;
+
+	// used by the worker only
+	private final StringBuilder line = new StringBuilder(256);
+	private final TimeOfDayFormat timeFormat = new TimeOfDayFormat();
+
+	AsyncAppender(Collection<Log> loggers) {
+		this.loggers = loggers;
+		for (int i = 0; i < CAPACITY; i++) {
+			ring[i] = new Entry();
+		}
+	}
+
+	/**
+	 * @param prefixed    whether the level is printed before the message
+	 * @param timestamped whether the time is printed after the level
+	 */
+	void append(Log.Level level, String message, boolean tabbed, boolean prefixed, boolean timestamped) {
+		long millis = System.currentTimeMillis();
+		synchronized (ring) {
+			while (size == CAPACITY) {
+				try {
+					ring.wait();
+				}
+				catch (InterruptedException e) {
+					// drop the message rather than losing the interrupt
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			ring[(head + size) & MASK].set(level, millis, message, tabbed, prefixed, timestamped);
+			size++;
+			if (worker == null) {
+				worker = new Thread(this::work, "log");
+				worker.setDaemon(true);
+				worker.start();
+				try {
+					Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+				}
+				catch (IllegalStateException e) {
+					// already shutting down, messages of higher levels are flushed anyway
+				}
+			}
+			ring.notifyAll();
+		}
+	}
+
+	/**
+	 * Blocks until all messages appended before are printed.
+	 */
+	void flush() {
+		synchronized (ring) {
+			try {
+				while (size > 0 && Thread.currentThread() != worker) {
+					ring.wait();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void work() {
+		while (true) {
+			int from;
+			int cnt;
+			synchronized (ring) {
+				try {
+					while (size == 0) {
+						ring.wait();
+					}
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				from = head;
+				cnt = size;
+			}
+			// the slots are not reused before they are freed below
+			for (int i = 0; i < cnt; i++) {
+				Entry entry = ring[(from + i) & MASK];
+				print(entry);
+				entry.message = null;
+			}
+			synchronized (ring) {
+				head = (head + cnt) & MASK;
+				size -= cnt;
+				ring.notifyAll();
+			}
+		}
+	}
+
+	private void print(Entry entry) {
+		line.setLength(0);
+		if (entry.tabbed) {
+			line.append('\t');
+		}
+		else if (entry.prefixed) {
+			line.append(entry.level.name());
+			if (entry.timestamped) {
+				line.append("\t[");
+				timeFormat.appendTo(line, entry.millis);
+				line.append("]: ");
+			}
+			else {
+				line.append(": ");
+			}
+		}
+		line.append(entry.message);
+		String text = line.toString();
+		for (Log logger : loggers) {
+			logger.println(text);
+		}
+	}
+
+	private static final class Entry {
+		Log.Level level;
+		long millis;
+		String message;
+		boolean tabbed;
+		boolean prefixed;
+		boolean timestamped;
+
+		void set(Log.Level level, long millis, String message, boolean tabbed, boolean prefixed, boolean timestamped) {
+			this.level = level;
+			this.millis = millis;
+			this.message = message;
+			this.tabbed = tabbed;
+			this.prefixed = prefixed;
+			this.timestamped = timestamped;
+		}
+	}
+}
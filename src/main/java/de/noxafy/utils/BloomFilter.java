@@ -0,0 +1,119 @@
+package de.noxafy.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Set of 64 bit hashes that answers whether a hash is definitely not contained in constant time and 10 bits per key.
+ * With up to {@link #getCapacity()} keys, about 1% of the hashes not contained are reported as possibly contained.
+ * The hashes should be well mixed, e.g. by {@link #mix(long)}.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class BloomFilter {
+
+	private static final int BITS_PER_KEY = 10;
+	private static final int HASHES = 7;
+
+	private final long[] words;
+	// number of bits, a power of two
+	private final long mask;
+	private long size;
+
+	/**
+	 * @param capacity number of keys to be added at most for the false positive rate to hold
+	 */
+	public BloomFilter(long capacity) {
+		long bits = Long.highestOneBit(Math.max(capacity * BITS_PER_KEY, 1 << 16) - 1) << 1;
+		if (bits / 64 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Capacity too big: " + capacity);
+		}
+		words = new long[(int) (bits / 64)];
+		mask = bits - 1;
+	}
+
+	private BloomFilter(long[] words, long size) {
+		this.words = words;
+		this.mask = (long) words.length * 64 - 1;
+		this.size = size;
+	}
+
+	public void add(long hash) {
+		long h2 = mix(hash) | 1;
+		for (int i = 0; i < HASHES; i++) {
+			long bit = (hash + i * h2) & mask;
+			words[(int) (bit >>> 6)] |= 1L << bit;
+		}
+		size++;
+	}
+
+	/**
+	 * @return <code>false</code> if the hash has definitely not been added
+	 */
+	public boolean mightContain(long hash) {
+		long h2 = mix(hash) | 1;
+		for (int i = 0; i < HASHES; i++) {
+			long bit = (hash + i * h2) & mask;
+			if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return number of hashes added
+	 */
+	public long size() {
+		return size;
+	}
+
+	public long getCapacity() {
+		return (mask + 1) / BITS_PER_KEY;
+	}
+
+	/**
+	 * @return number of bytes {@link #write} puts
+	 */
+	public int getSerializedSize() {
+		return 8 + 4 + words.length * 8;
+	}
+
+	public void write(ByteBuffer out) {
+		out.putLong(size).putInt(words.length);
+		out.asLongBuffer().put(words);
+		out.position(out.position() + words.length * 8);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the data is no bloom filter {@link #write written} before
+	 */
+	public static BloomFilter read(ByteBuffer in) throws IllegalArgumentException {
+		try {
+			long size = in.getLong();
+			int length = in.getInt();
+			// checked before allocating anything, so a corrupt length does not exhaust the memory
+			if (length <= 0 || Integer.bitCount(length) != 1 || length > in.remaining() / 8) {
+				throw new IllegalArgumentException("Invalid number of words: " + length);
+			}
+			long[] words = new long[length];
+			in.asLongBuffer().get(words);
+			in.position(in.position() + length * 8);
+			return new BloomFilter(words, size);
+		}
+		catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Bloom filter is truncated.", e);
+		}
+	}
+
+	/**
+	 * Finalizer of MurmurHash3, spreads every bit of the input over all bits of the result.
+	 */
+	public static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb93e53e1fe1bL;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,17 @@
+package de.noxafy.utils;
+
+/**
+ * Source of the current time, so it can be replaced where time has to be reproducible.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public interface Clock {
+
+	Clock SYSTEM = System::currentTimeMillis;
+
+	/**
+	 * @return the current time in milliseconds since epoch
+	 */
+	long millis();
+}
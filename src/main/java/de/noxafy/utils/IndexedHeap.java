@@ -0,0 +1,207 @@
+package de.noxafy.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Max-heap of ids in the range <code>0 ... universe - 1</code> keyed by doubles. The position of each id in the heap is
+ * tracked, so keys can be changed and ids removed in O(log n).
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class IndexedHeap {
+
+	private int[] heap = new int[16];
+	private double[] keys = new double[16];
+	// position of each id in heap or -1
+	private final int[] positions;
+	private int size;
+
+	public IndexedHeap(int universe) {
+		positions = new int[universe];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Adds the given id or changes its key if already contained.
+	 */
+	public void add(int id, double key) {
+		if (contains(id)) {
+			update(id, key);
+			return;
+		}
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+			keys = Arrays.copyOf(keys, size * 2);
+		}
+		heap[size] = id;
+		keys[size] = key;
+		positions[id] = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Adds all given ids at once, which is faster than adding them one by one.
+	 *
+	 * @throws IllegalArgumentException if an id is already contained
+	 */
+	public void addAll(IntList ids, IntToDoubleFunction key) {
+		int newSize = size + ids.size();
+		if (newSize > heap.length) {
+			heap = Arrays.copyOf(heap, newSize);
+			keys = Arrays.copyOf(keys, newSize);
+		}
+		for (int i = 0; i < ids.size(); i++) {
+			int id = ids.get(i);
+			if (contains(id)) {
+				throw new IllegalArgumentException("Already contained: " + id);
+			}
+			set(size++, id, key.applyAsDouble(id));
+		}
+		for (int i = (size >>> 1) - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Changes the key of a contained id.
+	 *
+	 * @throws IllegalArgumentException if the id is not contained
+	 */
+	public void update(int id, double key) {
+		int pos = positionOf(id);
+		double old = keys[pos];
+		keys[pos] = key;
+		if (key > old) {
+			siftUp(pos);
+		}
+		else {
+			siftDown(pos);
+		}
+	}
+
+	/**
+	 * @return whether the id was contained
+	 */
+	public boolean remove(int id) {
+		if (!contains(id)) return false;
+		int pos = positions[id];
+		positions[id] = -1;
+		size--;
+		if (pos != size) {
+			heap[pos] = heap[size];
+			keys[pos] = keys[size];
+			positions[heap[pos]] = pos;
+			siftDown(pos);
+			siftUp(pos);
+		}
+		return true;
+	}
+
+	public boolean contains(int id) {
+		return id >= 0 && id < positions.length && positions[id] >= 0;
+	}
+
+	/**
+	 * @return the id with the highest key
+	 * @throws IllegalStateException if empty
+	 */
+	public int peek() {
+		if (size == 0) throw new IllegalStateException("Heap is empty");
+		return heap[0];
+	}
+
+	/**
+	 * @return the id with the second highest key
+	 * @throws IllegalStateException if there are less than two ids
+	 */
+	public int peekSecond() {
+		if (size < 2) throw new IllegalStateException("Heap has less than two ids");
+		if (size == 2 || keys[1] >= keys[2]) return heap[1];
+		return heap[2];
+	}
+
+	/**
+	 * Passes all ids with a key greater than the given threshold to the given consumer, in no particular order. Only
+	 * the part of the heap above the threshold is visited.
+	 */
+	public void forEachAbove(double threshold, IntConsumer consumer) {
+		forEachAbove(0, threshold, consumer);
+	}
+
+	private void forEachAbove(int pos, double threshold, IntConsumer consumer) {
+		if (pos >= size || keys[pos] <= threshold) return;
+		consumer.accept(heap[pos]);
+		forEachAbove(2 * pos + 1, threshold, consumer);
+		forEachAbove(2 * pos + 2, threshold, consumer);
+	}
+
+	public double getKey(int id) {
+		return keys[positionOf(id)];
+	}
+
+	/**
+	 * @return the id at the given position in heap order, which is no particular order
+	 */
+	public int get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		return heap[i];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private int positionOf(int id) {
+		if (!contains(id)) {
+			throw new IllegalArgumentException("Not contained: " + id);
+		}
+		return positions[id];
+	}
+
+	private void siftUp(int pos) {
+		int id = heap[pos];
+		double key = keys[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (keys[parent] >= key) break;
+			move(parent, pos);
+			pos = parent;
+		}
+		set(pos, id, key);
+	}
+
+	private void siftDown(int pos) {
+		int id = heap[pos];
+		double key = keys[pos];
+		int half = size >>> 1;
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			if (child + 1 < size && keys[child + 1] > keys[child]) {
+				child++;
+			}
+			if (key >= keys[child]) break;
+			move(child, pos);
+			pos = child;
+		}
+		set(pos, id, key);
+	}
+
+	private void move(int from, int to) {
+		set(to, heap[from], keys[from]);
+	}
+
+	private void set(int pos, int id, double key) {
+		heap[pos] = id;
+		keys[pos] = key;
+		positions[id] = pos;
+	}
+}
@@ -0,0 +1,117 @@
+package de.noxafy.utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of ids in the range <code>0 ... universe - 1</code> with O(1) add, remove and contains. The position of each id
+ * is tracked in a positions array, which can be shared by sets known to be disjoint, so each id needs only one
+ * position for all of them. Removing an id moves the last one into its place, so the order of the ids is only kept as
+ * long as none is removed.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class IndexedIntSet {
+
+	private final IntList members = new IntList();
+	private final int[] positions;
+
+	/**
+	 * @param universe number of possible ids
+	 */
+	public IndexedIntSet(int universe) {
+		this(newPositions(universe));
+	}
+
+	/**
+	 * @param positions positions array of another set, which has to be disjoint with this one all the time
+	 */
+	public IndexedIntSet(int[] positions) {
+		this.positions = positions;
+	}
+
+	/**
+	 * @return a positions array to be shared by disjoint sets
+	 */
+	public static int[] newPositions(int universe) {
+		int[] positions = new int[universe];
+		Arrays.fill(positions, -1);
+		return positions;
+	}
+
+	/**
+	 * @return whether the id was not contained yet
+	 */
+	public boolean add(int id) {
+		if (contains(id)) return false;
+		positions[id] = members.size();
+		members.add(id);
+		return true;
+	}
+
+	/**
+	 * @return whether the id was contained
+	 */
+	public boolean remove(int id) {
+		if (!contains(id)) return false;
+		int pos = positions[id];
+		int last = members.removeAt(members.size() - 1);
+		if (last != id) {
+			members.set(pos, last);
+			positions[last] = pos;
+		}
+		positions[id] = -1;
+		return true;
+	}
+
+	public boolean contains(int id) {
+		if (id < 0 || id >= positions.length) return false;
+		int pos = positions[id];
+		// the position might belong to another set sharing the positions
+		return pos >= 0 && pos < members.size() && members.get(pos) == id;
+	}
+
+	public int get(int i) {
+		return members.get(i);
+	}
+
+	public int size() {
+		return members.size();
+	}
+
+	public boolean isEmpty() {
+		return members.isEmpty();
+	}
+
+	public void clear() {
+		members.clear();
+	}
+
+	/**
+	 * Sorts the ids ascending.
+	 */
+	public void sort() {
+		members.sort();
+		updatePositions();
+	}
+
+	private void updatePositions() {
+		for (int i = 0; i < members.size(); i++) {
+			positions[members.get(i)] = i;
+		}
+	}
+
+	/**
+	 * @return a copy of the ids in their current order
+	 */
+	public IntList toIntList() {
+		return new IntList(members);
+	}
+
+	/**
+	 * @return a copy of the ids in their current order
+	 */
+	public int[] toArray() {
+		return members.toArray();
+	}
+}
@@ -0,0 +1,173 @@
+package de.noxafy.utils;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Growable list of primitive ints, so lists of indices do not need an object per entry.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class IntList {
+
+	private int[] values;
+	private int size;
+
+	public IntList() {
+		this(10);
+	}
+
+	public IntList(int capacity) {
+		values = new int[Math.max(capacity, 1)];
+	}
+
+	public IntList(IntList other) {
+		values = Arrays.copyOf(other.values, Math.max(other.size, 1));
+		size = other.size;
+	}
+
+	public void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size + (size >> 1) + 1);
+		}
+		values[size++] = value;
+	}
+
+	public void addAll(IntList other) {
+		if (size + other.size > values.length) {
+			values = Arrays.copyOf(values, Math.max(size + other.size, size + (size >> 1) + 1));
+		}
+		System.arraycopy(other.values, 0, values, size, other.size);
+		size += other.size;
+	}
+
+	public int get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	public void set(int index, int value) {
+		checkIndex(index);
+		values[index] = value;
+	}
+
+	/**
+	 * Removes the value at the given index by shifting all following values.
+	 *
+	 * @return the removed value
+	 */
+	public int removeAt(int index) {
+		checkIndex(index);
+		int value = values[index];
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Removes the first occurrence of the given value.
+	 *
+	 * @return whether the value was contained
+	 */
+	public boolean removeValue(int value) {
+		int index = indexOf(value);
+		if (index < 0) return false;
+		removeAt(index);
+		return true;
+	}
+
+	public int indexOf(int value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) return i;
+		}
+		return -1;
+	}
+
+	public boolean contains(int value) {
+		return indexOf(value) >= 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Sorts the values ascending.
+	 */
+	public void sort() {
+		Arrays.sort(values, 0, size);
+	}
+
+	/**
+	 * Sorts the values ascending by the given key. The key is computed once per value and the sort is stable.
+	 */
+	public void sortBy(IntToDoubleFunction key) {
+		double[] keys = new double[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = key.applyAsDouble(values[i]);
+		}
+		// bottom-up merge sort on both arrays
+		double[] keysTmp = new double[size];
+		int[] valuesTmp = new int[size];
+		double[] keysSrc = keys;
+		int[] valuesSrc = values;
+		for (int width = 1; width < size; width <<= 1) {
+			for (int from = 0; from < size; from += width << 1) {
+				int mid = Math.min(from + width, size);
+				int to = Math.min(from + (width << 1), size);
+				int l = from, r = mid, k = from;
+				while (l < mid && r < to) {
+					if (keysSrc[r] < keysSrc[l]) {
+						keysTmp[k] = keysSrc[r];
+						valuesTmp[k++] = valuesSrc[r++];
+					}
+					else {
+						keysTmp[k] = keysSrc[l];
+						valuesTmp[k++] = valuesSrc[l++];
+					}
+				}
+				for (; l < mid; l++, k++) {
+					keysTmp[k] = keysSrc[l];
+					valuesTmp[k] = valuesSrc[l];
+				}
+				for (; r < to; r++, k++) {
+					keysTmp[k] = keysSrc[r];
+					valuesTmp[k] = valuesSrc[r];
+				}
+			}
+			double[] keysSwap = keysSrc;
+			keysSrc = keysTmp;
+			keysTmp = keysSwap;
+			int[] valuesSwap = valuesSrc;
+			valuesSrc = valuesTmp;
+			valuesTmp = valuesSwap;
+		}
+		if (valuesSrc != values) {
+			System.arraycopy(valuesSrc, 0, values, 0, size);
+		}
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
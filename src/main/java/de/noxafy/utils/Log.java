@@ -1,21 +1,24 @@
 package de.noxafy.utils;
 
 import java.io.PrintStream;
-import java.text.SimpleDateFormat;
 import java.util.Collection;
-import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
+ * Messages are printed in background by an {@link AsyncAppender}, in the order they were logged. Messages of
+ * {@link Level#INFO} and above are printed before returning, so they are never out of order with other output.
+ * Others may be printed later, call {@link #flush()} before printing to the same stream directly.
+ *
  * @author noxafy
  * @created 25.10.18
  */
 public class Log {
 
-	private static final Collection<Log> loggers = new LinkedList<>();
-	private static Level LEVEL = Level.INFO;
-	private static boolean prefixOn = true;
+	private static final Collection<Log> loggers = new CopyOnWriteArrayList<>();
+	private static final AsyncAppender appender = new AsyncAppender(loggers);
+	private static volatile Level LEVEL = Level.INFO;
+	private static volatile boolean prefixOn = true;
 
 	private final PrintStream out;
 
@@ -23,8 +26,12 @@ public class Log {
 		this.out = out;
 	}
 
+	void println(String line) {
+		out.println(line);
+	}
+
 	public static void info(String message) {
-		log(Level.INFO, message);
+		append(Level.INFO, message, false);
 	}
 
 	/**
@@ -35,6 +42,24 @@ public class Log {
 		log(Level.VERBOSE, fmt_message, objs);
 	}
 
+	/**
+	 * As {@link #verbose(String, Object...)}, but without boxing the number if verbose mode is not activated.
+	 */
+	public static void verbose(String fmt_message, long value) {
+		if (isLevel(Level.VERBOSE)) {
+			append(Level.VERBOSE, format(fmt_message, value, 0, 1), false);
+		}
+	}
+
+	/**
+	 * As {@link #verbose(String, Object...)}, but without boxing the numbers if verbose mode is not activated.
+	 */
+	public static void verbose(String fmt_message, long value1, long value2) {
+		if (isLevel(Level.VERBOSE)) {
+			append(Level.VERBOSE, format(fmt_message, value1, value2, 2), false);
+		}
+	}
+
 	/**
 	 * Debug to get into the current state of given objects (for people who <b>know</b> the code).
 	 * The string will only be built if debug mode is activated.
@@ -43,13 +68,31 @@ public class Log {
 		log(Level.DEBUG, fmt_message, objs);
 	}
 
+	/**
+	 * As {@link #debug(String, Object...)}, but without boxing the number if debug mode is not activated.
+	 */
+	public static void debug(String fmt_message, long value) {
+		if (isLevel(Level.DEBUG)) {
+			append(Level.DEBUG, format(fmt_message, value, 0, 1), false);
+		}
+	}
+
+	/**
+	 * As {@link #debug(String, Object...)}, but without boxing the numbers if debug mode is not activated.
+	 */
+	public static void debug(String fmt_message, long value1, long value2) {
+		if (isLevel(Level.DEBUG)) {
+			append(Level.DEBUG, format(fmt_message, value1, value2, 2), false);
+		}
+	}
+
 	/**
 	 * Debug with a preceding tab and without prefix.
 	 * As in {@link #debug(String, Object...)} the string will only be built if debug mode is activated.
 	 */
 	private static void logWithTab(Level level, String fmt_message, Object... objs) {
 		if (isLevel(level)) {
-			log0(String.format("\t" + fmt_message, objs));
+			append(level, format(fmt_message, objs), true);
 		}
 	}
 
@@ -85,7 +128,7 @@ public class Log {
 		if (!isLevel(level)) return;
 
 		for (Object o : list) {
-			logWithTab(level, o.toString());
+			append(level, o.toString(), true);
 		}
 	}
 
@@ -93,37 +136,88 @@ public class Log {
 	 * Program will exit after an error
 	 */
 	public static void error(String message) {
-		log(Level.ERROR, message);
+		append(Level.ERROR, message, false);
 	}
 
 	/**
 	 * Program will continue running, but might be in an undesired state
 	 */
 	public static void warn(String message) {
-		log(Level.WARNING, message);
+		append(Level.WARNING, message, false);
 	}
 
 	public static void log(Level level, String fmt_message, Object... objs) {
 		if (isLevel(level)) {
-			String prefix = "";
-			if (prefixOn) {
-				if (isLevel(Level.VERBOSE)) {
-					String timeStamp = new SimpleDateFormat("HH:mm:ss.SSS").format(new Date());
-					prefix = String.format("%s\t[%s]: ", level.name(), timeStamp);
-				}
-				else {
-					prefix = String.format("%s: ", level.name());
-				}
+			append(level, format(fmt_message, objs), false);
+		}
+	}
+
+	private static void append(Level level, String message, boolean tabbed) {
+		if (!isLevel(level)) return;
+		appender.append(level, message, tabbed, prefixOn, isLevel(Level.VERBOSE));
+		if (Level.INFO.is(level)) {
+			appender.flush();
+		}
+	}
+
+	/**
+	 * Blocks until all messages logged before are printed.
+	 */
+	public static void flush() {
+		appender.flush();
+	}
+
+	/**
+	 * Formats like {@link String#format}, but much cheaper for the conversions used in messages: <code>%s</code>,
+	 * <code>%d</code> and <code>%%</code>. Falls back to {@link String#format} for any other.
+	 */
+	private static String format(String fmt_message, Object... objs) {
+		StringBuilder sb = new StringBuilder(fmt_message.length() + 16 * objs.length);
+		int arg = 0;
+		for (int i = 0; i < fmt_message.length(); i++) {
+			char c = fmt_message.charAt(i);
+			if (c != '%') {
+				sb.append(c);
+				continue;
+			}
+			char conversion = ++i < fmt_message.length() ? fmt_message.charAt(i) : 0;
+			if (conversion == '%') {
+				sb.append('%');
+			}
+			else if ((conversion == 's' || conversion == 'd') && arg < objs.length) {
+				sb.append(objs[arg++]);
+			}
+			else {
+				return String.format(fmt_message, objs);
 			}
-			String message = String.format(fmt_message, objs);
-			log0(prefix + message);
 		}
+		return sb.toString();
 	}
 
-	private static void log0(String message) {
-		for (Log logger : loggers) {
-			logger.out.println(message);
+	/**
+	 * As {@link #format(String, Object...)} for up to two numbers, <code>cnt</code> gives how many are used.
+	 */
+	private static String format(String fmt_message, long value1, long value2, int cnt) {
+		StringBuilder sb = new StringBuilder(fmt_message.length() + 20 * cnt);
+		int arg = 0;
+		for (int i = 0; i < fmt_message.length(); i++) {
+			char c = fmt_message.charAt(i);
+			if (c != '%') {
+				sb.append(c);
+				continue;
+			}
+			char conversion = ++i < fmt_message.length() ? fmt_message.charAt(i) : 0;
+			if (conversion == '%') {
+				sb.append('%');
+			}
+			else if ((conversion == 'd' || conversion == 's') && arg < cnt) {
+				sb.append(arg++ == 0 ? value1 : value2);
+			}
+			else {
+				return cnt == 1 ? String.format(fmt_message, value1) : String.format(fmt_message, value1, value2);
+			}
 		}
+		return sb.toString();
 	}
 
 	public static void addLogger(PrintStream out) {
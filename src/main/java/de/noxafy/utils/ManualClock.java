@@ -0,0 +1,29 @@
+package de.noxafy.utils;
+
+/**
+ * Clock only moving when told to.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class ManualClock implements Clock {
+
+	private long millis;
+
+	public ManualClock(long millis) {
+		this.millis = millis;
+	}
+
+	@Override
+	public long millis() {
+		return millis;
+	}
+
+	public void set(long millis) {
+		this.millis = millis;
+	}
+
+	public void advance(long millis) {
+		this.millis += millis;
+	}
+}
@@ -0,0 +1,55 @@
+package de.noxafy.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws distinct random positions with Floyd's algorithm, which needs k random numbers and O(k) memory regardless of
+ * the number of positions, so the sampled collection is never copied.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class RandomSampler {
+
+	private RandomSampler() {
+	}
+
+	/**
+	 * @param n    number of positions to sample from
+	 * @param k    number of positions to draw, at most n are drawn
+	 * @param rand source of randomness
+	 * @return k distinct positions in the range <code>0 ... n - 1</code>, in no particular order
+	 */
+	public static IntList sample(int n, int k, Random rand) {
+		k = Math.max(Math.min(k, n), 0);
+		IntList sample = new IntList(k);
+		// open addressing hash set of the drawn positions
+		int[] drawn = new int[Integer.highestOneBit(Math.max(2 * k, 1)) << 1];
+		Arrays.fill(drawn, -1);
+		int mask = drawn.length - 1;
+		for (int j = n - k; j < n; j++) {
+			int t = rand.nextInt(j + 1);
+			if (!insert(drawn, mask, t)) {
+				// t drawn before, but j cannot have been
+				insert(drawn, mask, j);
+				t = j;
+			}
+			sample.add(t);
+		}
+		return sample;
+	}
+
+	/**
+	 * @return whether the value was not contained yet
+	 */
+	private static boolean insert(int[] table, int mask, int value) {
+		int i = (value * 0x9E3779B9) >>> 7 & mask;
+		while (table[i] != -1) {
+			if (table[i] == value) return false;
+			i = (i + 1) & mask;
+		}
+		table[i] = value;
+		return true;
+	}
+}
@@ -0,0 +1,43 @@
+package de.noxafy.utils;
+
+import java.util.TimeZone;
+
+/**
+ * Formats times as <code>HH:mm:ss.SSS</code> in the default time zone like a {@link java.text.SimpleDateFormat}, but
+ * keeps the formatted second, so formatting a time within the same second as the last one only appends the millis.
+ * Not thread-safe.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class TimeOfDayFormat {
+
+	private static final long SECOND = 1000;
+	private static final long DAY = 24 * 60 * 60 * SECOND;
+
+	private final TimeZone zone = TimeZone.getDefault();
+	// "HH:mm:ss." of the second starting at cached_second
+	private final char[] cached = new char[9];
+	private long cached_second = Long.MIN_VALUE;
+
+	void appendTo(StringBuilder sb, long millis) {
+		long second = Math.floorDiv(millis, SECOND) * SECOND;
+		if (second != cached_second) {
+			long time_of_day = Math.floorMod(millis + zone.getOffset(millis), DAY) / SECOND;
+			put(0, (int) (time_of_day / 3600));
+			cached[2] = ':';
+			put(3, (int) (time_of_day / 60 % 60));
+			cached[5] = ':';
+			put(6, (int) (time_of_day % 60));
+			cached[8] = '.';
+			cached_second = second;
+		}
+		int ms = (int) (millis - second);
+		sb.append(cached).append((char) ('0' + ms / 100)).append((char) ('0' + ms / 10 % 10)).append((char) ('0' + ms % 10));
+	}
+
+	private void put(int pos, int value) {
+		cached[pos] = (char) ('0' + value / 10);
+		cached[pos + 1] = (char) ('0' + value % 10);
+	}
+}
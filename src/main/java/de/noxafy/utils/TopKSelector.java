@@ -0,0 +1,202 @@
+package de.noxafy.utils;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Selects the k ids with the highest keys out of any number of candidates in O(n log k), keeping only the best k in a
+ * bounded min-heap. Candidates are {@link #offer offered} with their keys as they are produced, so they never have to
+ * be stored all at once. Candidates keyed in bulk can be streamed in with {@link #select}.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class TopKSelector {
+
+	private final int k;
+	// min-heap of the best candidates so far
+	private final int[] ids;
+	private final double[] keys;
+	private int size;
+	// selected ids and keys, highest key first, null until requested after the last offer
+	private IntList selected;
+	private double[] selectedKeys;
+
+	/**
+	 * @param k number of ids to select
+	 */
+	public TopKSelector(int k) {
+		this.k = Math.max(k, 0);
+		ids = new int[this.k];
+		keys = new double[this.k];
+	}
+
+	/**
+	 * Selects the k candidates with the highest keys as they are produced, keying them in blocks of a fixed size, so
+	 * neither all candidates nor all their keys are stored at once.
+	 *
+	 * @param k          number of ids to select
+	 * @param candidates produces all candidates into the given consumer, e.g. by
+	 *                   {@link IndexedHeap#forEachAbove(double, IntConsumer)}
+	 * @param blockSize  number of candidates keyed at once
+	 * @param key        keys a block of candidates
+	 * @return the selected ids, highest key first
+	 */
+	public static IntList select(int k, Consumer<IntConsumer> candidates, int blockSize, BlockKeyFunction key) {
+		TopKSelector selector = new TopKSelector(k);
+		if (selector.k == 0) return new IntList(0);
+		Block block = new Block(selector, Math.max(blockSize, 1), key);
+		candidates.accept(block);
+		block.flush();
+		return selector.getSelected();
+	}
+
+	/**
+	 * Offers a candidate with its key.
+	 */
+	public void offer(int id, double key) {
+		if (size < k) {
+			ids[size] = id;
+			keys[size] = key;
+			siftUp(size++);
+		}
+		else if (k > 0 && key > keys[0]) {
+			ids[0] = id;
+			keys[0] = key;
+			siftDown(0);
+		}
+		else {
+			return;
+		}
+		selected = null;
+		selectedKeys = null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the selected ids, highest key first
+	 */
+	public IntList getSelected() {
+		sortSelected();
+		return selected;
+	}
+
+	/**
+	 * @return the keys of the {@link #getSelected() selected ids} in the same order
+	 */
+	public double[] getSelectedKeys() {
+		sortSelected();
+		return selectedKeys;
+	}
+
+	/**
+	 * Sorts the selected candidates once after the last offer, by heap sorting a copy of the heap.
+	 */
+	private void sortSelected() {
+		if (selected != null) return;
+		int[] heapIds = ids.clone();
+		double[] heapKeys = keys.clone();
+		int[] sortedIds = new int[size];
+		selectedKeys = new double[size];
+		for (int n = size; n > 0; n--) {
+			// lowest is on top
+			sortedIds[n - 1] = heapIds[0];
+			selectedKeys[n - 1] = heapKeys[0];
+			heapIds[0] = heapIds[n - 1];
+			heapKeys[0] = heapKeys[n - 1];
+			siftDown(heapIds, heapKeys, n - 1, 0);
+		}
+		selected = new IntList(size);
+		for (int id : sortedIds) {
+			selected.add(id);
+		}
+	}
+
+	private void siftUp(int pos) {
+		int id = ids[pos];
+		double k = keys[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (keys[parent] <= k) break;
+			ids[pos] = ids[parent];
+			keys[pos] = keys[parent];
+			pos = parent;
+		}
+		ids[pos] = id;
+		keys[pos] = k;
+	}
+
+	private void siftDown(int pos) {
+		siftDown(ids, keys, size, pos);
+	}
+
+	private static void siftDown(int[] ids, double[] keys, int size, int pos) {
+		if (size == 0) return;
+		int id = ids[pos];
+		double k = keys[pos];
+		int half = size >>> 1;
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (k <= keys[child]) break;
+			ids[pos] = ids[child];
+			keys[pos] = keys[child];
+			pos = child;
+		}
+		ids[pos] = id;
+		keys[pos] = k;
+	}
+
+	/**
+	 * Keys a block of candidates at once.
+	 */
+	@FunctionalInterface
+	public interface BlockKeyFunction {
+		/**
+		 * @param ids   the candidates, valid up to <code>count</code>
+		 * @param count number of candidates
+		 * @param keys  filled with the key of each candidate at the same position
+		 */
+		void apply(int[] ids, int count, double[] keys);
+	}
+
+	/**
+	 * Collects streamed candidates until a block is full, then keys and offers them.
+	 */
+	private static final class Block implements IntConsumer {
+		private final TopKSelector selector;
+		private final BlockKeyFunction key;
+		private final int[] ids;
+		private final double[] keys;
+		private int count;
+
+		Block(TopKSelector selector, int size, BlockKeyFunction key) {
+			this.selector = selector;
+			this.key = key;
+			ids = new int[size];
+			keys = new double[size];
+		}
+
+		@Override
+		public void accept(int id) {
+			ids[count++] = id;
+			if (count == ids.length) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (count == 0) return;
+			key.apply(ids, count, keys);
+			for (int i = 0; i < count; i++) {
+				selector.offer(ids[i], keys[i]);
+			}
+			count = 0;
+		}
+	}
+}
@@ -9,6 +9,8 @@ import org.jetbrains.annotations.Nullable;
  */
 public abstract class DataManager<T, S> {
 
+	private boolean writeBehind = false;
+
 	/**
 	 * Loads the data from the specified data source.
 	 *
@@ -24,7 +26,33 @@ public abstract class DataManager<T, S> {
 	 * @param data The data to be saved in file
 	 */
 	public void write(@NotNull T data) {
-		writeData(onWrite(data));
+		S parsed = onWrite(data);
+		persist(() -> writeData(parsed));
+	}
+
+	/**
+	 * Executes the given write, in background if {@link #setWriteBehind write-behind} is enabled. Pending background
+	 * writes of this data manager are superseded by the given one.
+	 *
+	 * @param write the write to be executed, has to capture all data it needs
+	 */
+	protected void persist(@NotNull Runnable write) {
+		if (writeBehind) {
+			WriteBehind.submit(this, write);
+		}
+		else {
+			write.run();
+		}
+	}
+
+	/**
+	 * Enables or disables executing writes in background by {@link WriteBehind}. The data is still parsed by
+	 * {@link #onWrite} in the calling thread, so it may be changed right after {@link #write} returns.
+	 *
+	 * @param writeBehind whether writes should be executed in background
+	 */
+	protected void setWriteBehind(boolean writeBehind) {
+		this.writeBehind = writeBehind;
 	}
 
 	/**
@@ -5,7 +5,13 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Abstract class for writing and reading from a file as String from the file system. Inheriting classes can focus on
@@ -17,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 public abstract class FileManager<T> extends DataManager<T, String> {
 
 	private final File file;
+	private final boolean mapped;
 
 	/**
 	 * Give the file to read from and write to. It does not need to exist.
@@ -24,7 +31,18 @@ public abstract class FileManager<T> extends DataManager<T, String> {
 	 * @param file file to read from and write to
 	 */
 	protected FileManager(File file) {
+		this(file, false);
+	}
+
+	/**
+	 * Give the file to read from and write to. It does not need to exist.
+	 *
+	 * @param file   file to read from and write to
+	 * @param mapped whether the file should be read by mapping it into memory instead of copying it
+	 */
+	protected FileManager(File file, boolean mapped) {
 		this.file = file;
+		this.mapped = mapped;
 	}
 
 	public File getFile() {
@@ -40,13 +58,17 @@ public abstract class FileManager<T> extends DataManager<T, String> {
 	@Nullable
 	@Override
 	protected String readData() {
+		if (mapped) {
+			CharSequence content = readChars();
+			return content == null ? null : content.toString();
+		}
 		try (FileInputStream fis = new FileInputStream(file); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			byte[] buf = new byte[1024];
+			byte[] buf = new byte[8192];
 			int bytesRead;
 			while ((bytesRead = fis.read(buf)) != -1) {
 				baos.write(buf, 0, bytesRead);
 			}
-			return baos.toString();
+			return new String(baos.toByteArray(), StandardCharsets.UTF_8);
 		}
 		catch (Exception e) {
 			Log.error("Reading from file " + file.getAbsolutePath() + " failed.");
@@ -55,14 +77,110 @@ public abstract class FileManager<T> extends DataManager<T, String> {
 		}
 	}
 
+	/**
+	 * Fetches the content of the given file decoded as UTF-8. In mapped mode the bytes are decoded directly from the
+	 * mapped file without copying them to the heap first.
+	 * Returns <code>null</code> when file is absent.
+	 *
+	 * @return the content or <code>null</code> if no content available
+	 */
+	@Nullable
+	protected CharSequence readChars() {
+		if (!mapped) {
+			return readData();
+		}
+		ByteBuffer bytes = readMapped();
+		return bytes == null ? null : StandardCharsets.UTF_8.decode(bytes);
+	}
+
+	/**
+	 * Maps the content of the file read-only into memory.
+	 * Returns <code>null</code> when file is absent or too big to be mapped at once (2 GiB).
+	 *
+	 * @return the mapped content or <code>null</code> if not available
+	 */
+	@Nullable
+	protected ByteBuffer readMapped() {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				Log.verbose("File %s is too big to be mapped at once.", file.getAbsolutePath());
+				return null;
+			}
+			// mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		catch (Exception e) {
+			Log.error("Mapping file " + file.getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * @return whether the file is read by mapping it into memory
+	 */
+	protected boolean isMapped() {
+		return mapped;
+	}
+
 	@Override
 	protected void writeData(@NotNull String data) {
-		try (FileOutputStream out = new FileOutputStream(file)) {
-			out.write(data.getBytes(StandardCharsets.UTF_8));
+		writeFile(data);
+	}
+
+	/**
+	 * Writes the given content to the file atomically: The content is written to a temporary file next to it, synced
+	 * to disk and moved over the file afterwards.
+	 *
+	 * @param data content to be written
+	 * @return <code>true</code> if the content has been written successfully
+	 */
+	protected boolean writeFile(@NotNull String data) {
+		File tmp = getTempFile();
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer bytes = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+			while (bytes.hasRemaining()) {
+				out.write(bytes);
+			}
+			out.force(true);
+		}
+		catch (IOException e) {
+			Log.error("Writing " + data.length() + " bytes to file " + tmp.getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return false;
+		}
+		return replaceBy(tmp);
+	}
+
+	/**
+	 * @return the file content is written to before it replaces the file
+	 */
+	protected File getTempFile() {
+		return new File(file.getPath() + ".tmp");
+	}
+
+	/**
+	 * Moves the given file over the file, atomically if supported.
+	 *
+	 * @param tmp completely written file with the new content
+	 * @return <code>true</code> if the file has been replaced successfully
+	 */
+	protected boolean replaceBy(@NotNull File tmp) {
+		try {
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
 		}
 		catch (IOException e) {
-			Log.error("Writing " + data.length() + " bytes to file " + file.getAbsolutePath() + " failed.");
+			Log.error("Replacing file " + file.getAbsolutePath() + " failed.");
 			Log.error(e.toString());
+			return false;
 		}
 	}
 }
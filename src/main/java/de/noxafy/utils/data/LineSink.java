@@ -0,0 +1,109 @@
+package de.noxafy.utils.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes UTF-8 lines incrementally to a file through a fixed buffer, so only the lines not flushed yet are held in
+ * memory. Keeps the byte offset after the last line written, including buffered ones.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class LineSink implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel out;
+	private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+	private long offset;
+
+	/**
+	 * Writes to the channel at its current position. Closing the sink closes the channel.
+	 */
+	public LineSink(FileChannel out) throws IOException {
+		this.out = out;
+		this.offset = out.position();
+	}
+
+	/**
+	 * Opens the given file to write lines after its first bytes. Everything after them is dropped, so lines written
+	 * before can be discarded by giving an offset {@link #getOffset()} has returned.
+	 *
+	 * @param length number of bytes of the file to keep
+	 */
+	public static LineSink open(File file, long length) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			channel.truncate(length).position(length);
+			return new LineSink(channel);
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends the given line and a line break.
+	 */
+	public void write(String line) throws IOException {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length >= buf.remaining()) {
+			flush();
+			if (bytes.length >= buf.capacity()) {
+				writeFully(ByteBuffer.wrap(bytes));
+				bytes = new byte[0];
+			}
+		}
+		buf.put(bytes).put((byte) '\n');
+		offset += bytes.length + 1;
+	}
+
+	/**
+	 * Hands all lines written so far to the file system.
+	 */
+	@Override
+	public void flush() throws IOException {
+		buf.flip();
+		writeFully(buf);
+		buf.clear();
+	}
+
+	/**
+	 * Flushes and forces all lines written so far to the storage device.
+	 */
+	public void sync() throws IOException {
+		flush();
+		out.force(false);
+	}
+
+	private void writeFully(ByteBuffer bytes) throws IOException {
+		while (bytes.hasRemaining()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * @return the offset after the last line written
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package de.noxafy.utils.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines lazily from a channel and keeps the byte offset after the last line read, so reading can be
+ * resumed there later. Only the current line is held in memory, no matter how big the source is. Lines are read
+ * through a fixed buffer or, for files opened mapped, directly from windows of the file mapped into memory.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class LineSource implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	// bytes of a file mapped at once
+	private static final long WINDOW_SIZE = 1 << 26;
+
+	private final ReadableByteChannel in;
+	// end of the file in mapped mode, otherwise -1
+	private final long end;
+	private ByteBuffer buf;
+	private byte[] line = new byte[256];
+	private long offset;
+
+	/**
+	 * Reads the channel through a buffer. Closing the source closes the channel.
+	 *
+	 * @param offset the current position of the channel
+	 */
+	public LineSource(ReadableByteChannel in, long offset) {
+		this(in, offset, -1);
+		buf = ByteBuffer.allocate(BUFFER_SIZE);
+		buf.flip();
+	}
+
+	private LineSource(ReadableByteChannel in, long offset, long end) {
+		this.in = in;
+		this.offset = offset;
+		this.end = end;
+	}
+
+	/**
+	 * Opens the given file to read its lines from the given offset on.
+	 *
+	 * @param offset byte offset to start reading at, usually one {@link #getOffset()} has returned before
+	 * @param mapped whether the file should be read by mapping it into memory instead of copying it
+	 */
+	public static LineSource open(File file, long offset, boolean mapped) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			if (mapped) {
+				LineSource source = new LineSource(channel, offset, channel.size());
+				source.buf = ByteBuffer.allocate(0);
+				return source;
+			}
+			channel.position(offset);
+			return new LineSource(channel, offset);
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the line ending at the given offset backwards, e.g. the last line of a file, without reading the file
+	 * before it.
+	 *
+	 * @param end offset after the line, a line break right before it is skipped
+	 * @return the line without its line break, empty if <code>end</code> is 0
+	 */
+	public static String lineBefore(FileChannel in, long end) throws IOException {
+		ByteBuffer last = ByteBuffer.allocate(1);
+		if (end > 0 && in.read(last, end - 1) == 1 && last.get(0) == '\n') {
+			end--;
+		}
+		// read a growing window before the end until it holds the start of the line
+		for (long window = 256; ; window *= 2) {
+			long from = Math.max(end - window, 0);
+			ByteBuffer bytes = ByteBuffer.allocate((int) (end - from));
+			while (bytes.hasRemaining()) {
+				if (in.read(bytes, from + bytes.position()) < 0) {
+					throw new IOException("File ends before offset " + end);
+				}
+			}
+			int start = bytes.limit();
+			while (start > 0 && bytes.get(start - 1) != '\n') {
+				start--;
+			}
+			if (start > 0 || from == 0) {
+				return new String(bytes.array(), start, bytes.limit() - start, StandardCharsets.UTF_8);
+			}
+		}
+	}
+
+	/**
+	 * @return the next line without its line break or <code>null</code> at the end of the channel
+	 */
+	@Nullable
+	public String next() throws IOException {
+		int length = 0;
+		boolean read = false;
+		while (true) {
+			if (!buf.hasRemaining()) {
+				if (!fill()) {
+					return read ? new String(line, 0, length, StandardCharsets.UTF_8) : null;
+				}
+				continue;
+			}
+			byte b = buf.get();
+			offset++;
+			read = true;
+			if (b == '\n') {
+				return new String(line, 0, length, StandardCharsets.UTF_8);
+			}
+			if (length == line.length) {
+				line = Arrays.copyOf(line, length * 2);
+			}
+			line[length++] = b;
+		}
+	}
+
+	/**
+	 * Refills the empty buffer.
+	 *
+	 * @return <code>false</code> at the end of the channel
+	 */
+	private boolean fill() throws IOException {
+		if (end >= 0) {
+			if (offset >= end) return false;
+			// the previous window is unmapped as soon as it is collected
+			buf = ((FileChannel) in).map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, end - offset));
+			return true;
+		}
+		buf.clear();
+		int n = in.read(buf);
+		buf.flip();
+		return n >= 0;
+	}
+
+	/**
+	 * @return the offset after the last line read
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
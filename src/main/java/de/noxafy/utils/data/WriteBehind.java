@@ -0,0 +1,116 @@
+package de.noxafy.utils.data;
+
+import de.noxafy.utils.Log;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Background stage executing writes of {@link DataManager}s one after another on a single daemon thread. Writes
+ * submitted with the same key while a previous one is still pending are coalesced into the latest one, which is then
+ * executed after all other writes submitted before it. Pending writes are delayed shortly, so writes arriving close
+ * together are coalesced.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class WriteBehind {
+
+	// how long a write waits for further writes to be coalesced with
+	private static final long COALESCE_MILLIS = 100;
+
+	private static final Map<Object, Runnable> pending = new LinkedHashMap<>();
+	private static Thread worker;
+	private static boolean writing = false;
+	private static boolean flushing = false;
+	private static long firstPendingSince;
+
+	private WriteBehind() {
+	}
+
+	/**
+	 * Submits a write to be executed in background. A pending write with the same key is replaced.
+	 *
+	 * @param key   identifies writes that supersede each other, usually the writing {@link DataManager}
+	 * @param write the write to be executed, has to capture all data it needs
+	 */
+	public static void submit(Object key, Runnable write) {
+		synchronized (pending) {
+			if (pending.remove(key) != null) {
+				Log.debug("Coalesced pending write of %s", key);
+			}
+			if (pending.isEmpty()) {
+				firstPendingSince = System.currentTimeMillis();
+			}
+			pending.put(key, write);
+			if (worker == null) {
+				worker = new Thread(WriteBehind::work, "write-behind");
+				worker.setDaemon(true);
+				worker.start();
+			}
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * Blocks until all pending writes are executed.
+	 */
+	public static void flush() {
+		synchronized (pending) {
+			flushing = true;
+			pending.notifyAll();
+			try {
+				while (!pending.isEmpty() || writing) {
+					pending.wait();
+				}
+			}
+			catch (InterruptedException e) {
+				Log.warn("Interrupted while waiting for " + pending.size() + " pending writes.");
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				flushing = false;
+			}
+		}
+	}
+
+	private static void work() {
+		while (true) {
+			Runnable write;
+			synchronized (pending) {
+				try {
+					while (true) {
+						if (pending.isEmpty()) {
+							pending.wait();
+							continue;
+						}
+						long delay = firstPendingSince + COALESCE_MILLIS - System.currentTimeMillis();
+						if (flushing || delay <= 0) break;
+						pending.wait(delay);
+					}
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				Iterator<Runnable> it = pending.values().iterator();
+				write = it.next();
+				it.remove();
+				writing = true;
+			}
+			try {
+				write.run();
+			}
+			catch (RuntimeException e) {
+				Log.error("Write in background failed.");
+				Log.error(e.toString());
+			}
+			finally {
+				synchronized (pending) {
+					writing = false;
+					pending.notifyAll();
+				}
+			}
+		}
+	}
+}
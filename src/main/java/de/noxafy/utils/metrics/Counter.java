@@ -0,0 +1,29 @@
+package de.noxafy.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, cheap to increment from any thread.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class Counter {
+
+	private final LongAdder count = new LongAdder();
+
+	Counter() {
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public void add(long n) {
+		count.add(n);
+	}
+
+	public long get() {
+		return count.sum();
+	}
+}
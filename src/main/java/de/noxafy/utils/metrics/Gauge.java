@@ -0,0 +1,23 @@
+package de.noxafy.utils.metrics;
+
+/**
+ * Current value of something, e.g. a size, as last set.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class Gauge {
+
+	private volatile long value;
+
+	Gauge() {
+	}
+
+	public void set(long value) {
+		this.value = value;
+	}
+
+	public long get() {
+		return value;
+	}
+}
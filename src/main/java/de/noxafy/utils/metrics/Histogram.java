@@ -0,0 +1,108 @@
+package de.noxafy.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of non-negative values, e.g. latencies in nanoseconds, with a fixed relative precision like an
+ * HdrHistogram: Values below {@link #SUB_BUCKETS} are counted exactly, bigger ones in buckets of 1/64 of their power of
+ * two, so percentiles are off by less than 1.6% over the whole range of longs. Recording is constant time, lock-free
+ * and never allocates.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class Histogram {
+
+	private static final int SUB_BUCKETS = 128;
+	private static final int HALF = SUB_BUCKETS / 2;
+	// exact buckets plus half as many per power of two from SUB_BUCKETS to 2^62
+	private static final int BUCKETS = SUB_BUCKETS + (63 - 7) * HALF;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	Histogram() {
+	}
+
+	/**
+	 * @param value value to be recorded, negative ones are recorded as 0
+	 */
+	public void record(long value) {
+		value = Math.max(value, 0);
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		min.accumulateAndGet(value, Math::min);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * Records the nanoseconds passed since the given {@link System#nanoTime()}.
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		// top 7 bits, in [HALF, SUB_BUCKETS)
+		int top = (int) (value >>> (exponent - 6));
+		return SUB_BUCKETS + (exponent - 7) * HALF + top - HALF;
+	}
+
+	/**
+	 * @return the highest value counted in the given bucket
+	 */
+	static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) return index;
+		int exponent = (index - SUB_BUCKETS) / HALF + 7;
+		long top = (index - SUB_BUCKETS) % HALF + HALF;
+		return ((top + 1) << (exponent - 6)) - 1;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the smallest value recorded or 0 if none was
+	 */
+	public long getMin() {
+		return count.get() == 0 ? 0 : min.get();
+	}
+
+	/**
+	 * @return the biggest value recorded or 0 if none was
+	 */
+	public long getMax() {
+		return count.get() == 0 ? 0 : max.get();
+	}
+
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * @param percentile percentile in the range <code>0 ... 100</code>
+	 * @return a value at least as big as the given percentage of the recorded values, 0 if none was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0) return 0;
+		long rank = Math.max((long) Math.ceil(Math.min(percentile, 100) / 100 * n), 1);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+}
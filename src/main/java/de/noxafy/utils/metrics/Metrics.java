@@ -0,0 +1,96 @@
+package de.noxafy.utils.metrics;
+
+import de.noxafy.utils.Log;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the metrics of this process by name. Metrics are created on first use and live as long as the process,
+ * so call sites can keep them in static fields. All of them can be {@link #dump dumped} as JSON.
+ * Latencies are recorded in nanoseconds.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class Metrics {
+
+	private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+	private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+	private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 100 };
+	private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p999", "p100" };
+
+	private Metrics() {
+	}
+
+	public static Counter counter(String name) {
+		return counters.computeIfAbsent(name, n -> new Counter());
+	}
+
+	public static Gauge gauge(String name) {
+		return gauges.computeIfAbsent(name, n -> new Gauge());
+	}
+
+	public static Histogram histogram(String name) {
+		return histograms.computeIfAbsent(name, n -> new Histogram());
+	}
+
+	/**
+	 * @return the current values of all metrics, sorted by name
+	 */
+	public static JsonObject toJson() {
+		JsonObjectBuilder counterValues = Json.createObjectBuilder();
+		new TreeMap<>(counters).forEach((name, counter) -> counterValues.add(name, counter.get()));
+		JsonObjectBuilder gaugeValues = Json.createObjectBuilder();
+		new TreeMap<>(gauges).forEach((name, gauge) -> gaugeValues.add(name, gauge.get()));
+		JsonObjectBuilder histogramValues = Json.createObjectBuilder();
+		new TreeMap<>(histograms).forEach((name, histogram) -> histogramValues.add(name, toJson(histogram)));
+
+		return Json.createObjectBuilder()
+				.add("timestamp", System.currentTimeMillis())
+				.add("counters", counterValues)
+				.add("gauges", gaugeValues)
+				.add("histograms", histogramValues)
+				.build();
+	}
+
+	private static JsonObjectBuilder toJson(Histogram histogram) {
+		JsonObjectBuilder obj = Json.createObjectBuilder()
+				.add("count", histogram.getCount())
+				.add("min", histogram.getMin())
+				.add("mean", histogram.getMean());
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			obj.add(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+		}
+		return obj;
+	}
+
+	/**
+	 * Writes the {@link #toJson() current values} of all metrics to the given file, replacing its content.
+	 */
+	public static void dump(File file) {
+		try (OutputStream out = new FileOutputStream(file);
+		     JsonWriter writer = Json.createWriterFactory(Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true))
+				     .createWriter(out)) {
+			writer.writeObject(toJson());
+		}
+		catch (IOException | JsonException e) {
+			Log.warn("Writing metrics to " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package de.noxafy.vgen;
+
+import de.noxafy.utils.Log;
+import de.noxafy.voc.core.fileManager.FixedStatsLayout;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Writes synthetic decks of any size for scale testing, line by line, so the deck is never held in memory. The same
+ * seed and reference time always give the same deck.
+ * <p>
+ * Words are drawn from several scripts, including some outside the basic multilingual plane, meanings are latin and
+ * about a third of the vocs has a mnemonic. The vocs are added over the last three years in database order. Most of
+ * the recently added ones are new, the others have been asked with succeeded in a row values over all levels and were
+ * last asked within their forgetting time, give or take half of it, so a part of them is due.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class DeckSynthesizer {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+	private static final long HISTORY = 3 * 365 * DAY;
+	// forgetting time per knowledge level, for unknown vocs how long ago they were left unknown at most
+	private static final long[] FORGETTING_TIMES = { 7 * DAY, DAY, 3 * DAY, 7 * DAY, 91 * DAY, 365 * DAY };
+	// cumulative weights (per mille) and succeeded in a row ranges of the knowledge levels of asked vocs, only sessions
+	// interrupted premature leave unknown ones
+	private static final int[] LEVEL_WEIGHTS = { 2, 202, 402, 652, 852, 1000 };
+	private static final int[][] SIAR_RANGES = { { 0, 2 }, { 3, 4 }, { 5, 6 }, { 7, 10 }, { 11, 13 }, { 14, 25 } };
+
+	private static final Script LATIN = new Script(45, 2, 14, 'a', 'z');
+	private static final Script[] SCRIPTS = {
+			LATIN,
+			new Script(10, 2, 14, 0x430, 0x44f), // cyrillic
+			new Script(5, 2, 12, 0x3b1, 0x3c9), // greek
+			new Script(5, 2, 10, 0x627, 0x64a), // arabic
+			new Script(8, 2, 6, 0x3041, 0x3093), // hiragana
+			new Script(16, 1, 3, 0x4e00, 0x9fa5), // cjk
+			new Script(10, 1, 4, 0xac00, 0xd7a3), // hangul
+			new Script(1, 1, 2, 0x20000, 0x2a6d6), // cjk extension b, outside the bmp
+	};
+	private static final int SCRIPT_WEIGHTS;
+
+	static {
+		int sum = 0;
+		for (Script script : SCRIPTS) {
+			sum += script.weight;
+		}
+		SCRIPT_WEIGHTS = sum;
+	}
+
+	private final Random rand;
+	private final long now;
+	private final long count;
+	private final StringBuilder line = new StringBuilder(256);
+
+	private DeckSynthesizer(long count, long seed, long now) {
+		this.rand = new Random(seed);
+		this.now = now;
+		this.count = count;
+	}
+
+	/**
+	 * @param to    the csv to be written, overwritten if existing
+	 * @param count number of vocs
+	 * @param seed  seed of the random distributions
+	 * @param now   reference time, the vocs are added and asked before it
+	 */
+	static void generate(File to, long count, long seed, long now) {
+		long start = System.currentTimeMillis();
+		DeckSynthesizer synthesizer = new DeckSynthesizer(count, seed, now);
+		try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(to), StandardCharsets.UTF_8),
+				1 << 16)) {
+			for (long i = 0; i < count; i++) {
+				out.append(synthesizer.nextLine(i)).append('\n');
+			}
+		}
+		catch (IOException e) {
+			Log.error("Writing to " + to.getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return;
+		}
+		Log.info(count + " vocs generated in " + (System.currentTimeMillis() - start) + " ms.");
+	}
+
+	private StringBuilder nextLine(long i) {
+		line.setLength(0);
+		line.append('"');
+		appendPhrase(pickScript());
+		line.append("\",\"");
+		appendPhrase(LATIN);
+		line.append("\",\"");
+		if (rand.nextInt(3) == 0) {
+			appendWords(LATIN, 3 + rand.nextInt(8));
+		}
+		line.append("\",\"");
+
+		// added in database order, more or less evenly over the history
+		long added = now - HISTORY + (long) ((double) i / count * HISTORY) - rand.nextInt(60 * 60 * 1000);
+		line.append(added).append("\",");
+
+		boolean recent = added > now - HISTORY / 10;
+		if (rand.nextInt(100) < (recent ? 60 : 3)) {
+			return FixedStatsLayout.appendStats(line, 0, 0, 0, 0);
+		}
+		int level = pickLevel();
+		int[] range = SIAR_RANGES[level];
+		int siar = range[0] + rand.nextInt(range[1] - range[0] + 1);
+		int failed = 0;
+		while (rand.nextInt(5) < 2) {
+			failed++;
+		}
+		int asked = Math.max(siar + 4 * failed + rand.nextInt(3), 3);
+		long lastAsked = now - (long) (rand.nextDouble() * 1.5 * FORGETTING_TIMES[level]);
+		if (lastAsked <= added) {
+			lastAsked = added + (long) (rand.nextDouble() * (now - added));
+		}
+		return FixedStatsLayout.appendStats(line, lastAsked, asked, failed, siar);
+	}
+
+	private Script pickScript() {
+		int r = rand.nextInt(SCRIPT_WEIGHTS);
+		for (Script script : SCRIPTS) {
+			r -= script.weight;
+			if (r < 0) return script;
+		}
+		return LATIN;
+	}
+
+	private int pickLevel() {
+		int r = rand.nextInt(LEVEL_WEIGHTS[LEVEL_WEIGHTS.length - 1]);
+		int level = 0;
+		while (r >= LEVEL_WEIGHTS[level]) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Appends mostly one word, sometimes a few.
+	 */
+	private void appendPhrase(Script script) {
+		int r = rand.nextInt(100);
+		appendWords(script, r < 80 ? 1 : r < 95 ? 2 : 3);
+	}
+
+	private void appendWords(Script script, int words) {
+		for (int w = 0; w < words; w++) {
+			if (w > 0) line.append(' ');
+			// lengths cluster at the lower end
+			int length = script.minLength + (int) Math.abs(rand.nextGaussian() * (script.maxLength - script.minLength) / 2.5);
+			length = Math.min(length, script.maxLength);
+			for (int c = 0; c < length; c++) {
+				line.appendCodePoint(script.from + rand.nextInt(script.to - script.from + 1));
+			}
+		}
+	}
+
+	private static final class Script {
+		final int weight;
+		final int minLength;
+		final int maxLength;
+		// range of code points
+		final int from;
+		final int to;
+
+		Script(int weight, int minLength, int maxLength, int from, int to) {
+			this.weight = weight;
+			this.minLength = minLength;
+			this.maxLength = maxLength;
+			this.from = from;
+			this.to = to;
+		}
+	}
+}
@@ -0,0 +1,429 @@
+package de.noxafy.vgen;
+
+import de.noxafy.utils.BloomFilter;
+import de.noxafy.utils.Log;
+import de.noxafy.utils.data.LineSource;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Detects vocs already in a deck or imported into it before by their {@link #key key}. A {@link BloomFilter} of the
+ * keys of the deck is stored next to it, so most new vocs are told new without reading the deck. Only possible
+ * duplicates are checked exactly: against the keys imported since and against an index of the deck, which is built on
+ * the first possible duplicate and maps the hashes of the keys to the offsets of their lines.
+ * <p>
+ * The filter is stamped with the length of the deck and a checksum of the keys of its first and last line, which tells
+ * whether vocs have been added or removed. The modification date is not stamped, as voc sessions patch the stats in
+ * place without changing any key.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class DuplicateFilter implements AutoCloseable {
+
+	private static final int MAGIC = 0x76676e42; // "vgnB"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+	private final File deck;
+	private final File file;
+
+	// null until first used
+	private BloomFilter bloom;
+	// length of the deck when the filter was loaded, vocs beyond are imported ones
+	private long deckLength;
+	private KeyIndex index;
+	private FileChannel deckChannel;
+	private ImportedKeys imported = new ImportedKeys();
+	private long duplicates = 0;
+
+	DuplicateFilter(File deck) {
+		this.deck = deck;
+		this.file = new File(deck.getPath() + ".bloom");
+	}
+
+	/**
+	 * Keys are equal, if word and meaning are equal ignoring case, surrounding white space, the kind and number of
+	 * white spaces between words and different representations of the same characters.
+	 */
+	static String key(String word, String meaning) {
+		return normalize(word) + '\u0000' + normalize(meaning);
+	}
+
+	private static String normalize(String s) {
+		s = Normalizer.normalize(s, Normalizer.Form.NFKC);
+		StringBuilder sb = new StringBuilder(s.length());
+		boolean space = false;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+				space = sb.length() > 0;
+				continue;
+			}
+			if (space) {
+				sb.append(' ');
+				space = false;
+			}
+			sb.append(c);
+		}
+		return sb.toString().toLowerCase(Locale.ROOT);
+	}
+
+	private static long hash(String key) {
+		// FNV-1a
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		return BloomFilter.mix(h);
+	}
+
+	/**
+	 * @return the key of a line of a deck or <code>null</code> if it is malformed
+	 */
+	@Nullable
+	static String keyOfLine(String line) {
+		if (line.length() < 2 || line.charAt(0) != '"') return null;
+		int wordEnd = line.indexOf("\",\"", 1);
+		if (wordEnd < 0) return null;
+		int meaningEnd = line.indexOf("\",\"", wordEnd + 3);
+		if (meaningEnd < 0) {
+			meaningEnd = line.lastIndexOf('"');
+			if (meaningEnd < wordEnd + 3) return null;
+		}
+		return key(line.substring(1, wordEnd), line.substring(wordEnd + 3, meaningEnd));
+	}
+
+	/**
+	 * Adds the key of the given line of a deck to the checksum, or the whole line if it has no key.
+	 */
+	static void updateKeyChecksum(CRC32 crc, String line) {
+		String key = keyOfLine(line);
+		crc.update((key == null ? line : key).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Records the given key as imported, if it is not a duplicate.
+	 *
+	 * @param key the {@link #key key} of the voc to be imported
+	 * @return whether a voc with the same key is in the deck or has been recorded before
+	 */
+	boolean isDuplicate(String key) throws IOException {
+		if (bloom == null) {
+			load();
+		}
+		long hash = hash(key);
+		if (bloom.mightContain(hash)) {
+			if (imported.contains(key, hash) || isInDeck(key, hash)) {
+				duplicates++;
+				return true;
+			}
+		}
+		bloom.add(hash);
+		imported.add(key, hash);
+		if (bloom.size() > bloom.getCapacity()) {
+			grow();
+		}
+		return false;
+	}
+
+	private boolean isInDeck(String key, long hash) throws IOException {
+		if (index == null) {
+			index = KeyIndex.build(openDeck(), deckLength);
+		}
+		return index.contains(key, hash, deckChannel);
+	}
+
+	/**
+	 * Replaces the bloom filter by one of twice the size, so its false positive rate holds.
+	 */
+	private void grow() throws IOException {
+		if (index == null) {
+			index = KeyIndex.build(openDeck(), deckLength);
+		}
+		bloom = new BloomFilter(2 * bloom.size());
+		for (int i = 0; i < index.size; i++) {
+			bloom.add(index.hashes[i]);
+		}
+		for (int i = 0; i < imported.size; i++) {
+			bloom.add(imported.hashes[i]);
+		}
+	}
+
+	/**
+	 * @return number of duplicates found
+	 */
+	long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * Forgets everything known about the deck, e.g. after it was truncated.
+	 */
+	void reset() {
+		bloom = null;
+		index = null;
+		imported = new ImportedKeys();
+	}
+
+	private void load() throws IOException {
+		deckLength = deck.length();
+		bloom = read();
+		if (bloom == null) {
+			Log.debug("Indexing keys of %s", deck.getAbsolutePath());
+			index = KeyIndex.build(openDeck(), deckLength);
+			bloom = new BloomFilter(Math.max(2L * index.size, 1));
+			for (int i = 0; i < index.size; i++) {
+				bloom.add(index.hashes[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return the stored filter or <code>null</code> if it is missing, corrupt or stamped with another state of the deck
+	 */
+	@Nullable
+	BloomFilter read() {
+		if (!file.exists() || !deck.exists()) return null;
+		try {
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC || data.getInt() != VERSION
+					|| data.getLong() != deck.length() || data.getLong() != checkDeck()) {
+				return null;
+			}
+			BloomFilter bloom = BloomFilter.read(data);
+			// too full to be of use
+			return bloom.size() > bloom.getCapacity() ? null : bloom;
+		}
+		catch (IOException | IllegalArgumentException e) {
+			Log.warn("Reading " + file.getAbsolutePath() + " failed. Indexing deck anew.");
+			Log.warn(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Checksums the keys of the first and the last line of the deck.
+	 */
+	private long checkDeck() throws IOException {
+		CRC32 crc = new CRC32();
+		try (FileChannel in = FileChannel.open(deck.toPath(), StandardOpenOption.READ)) {
+			String first = new LineSource(in, 0).next();
+			updateKeyChecksum(crc, first == null ? "" : first);
+			updateKeyChecksum(crc, LineSource.lineBefore(in, in.size()));
+		}
+		return crc.getValue();
+	}
+
+	private FileChannel openDeck() throws IOException {
+		if (deckChannel == null) {
+			deckChannel = FileChannel.open(deck.toPath(), StandardOpenOption.READ);
+		}
+		return deckChannel;
+	}
+
+	/**
+	 * Stores the filter stamped with the current state of the deck, which has to contain all vocs recorded.
+	 */
+	void save() {
+		if (bloom == null) return;
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + bloom.getSerializedSize());
+			data.putInt(MAGIC).putInt(VERSION).putLong(deck.length()).putLong(checkDeck());
+			bloom.write(data);
+			data.flip();
+			try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (data.hasRemaining()) {
+					out.write(data);
+				}
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Log.warn("Writing " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+		}
+	}
+
+	@Override
+	public void close() {
+		if (deckChannel == null) return;
+		try {
+			deckChannel.close();
+		}
+		catch (IOException e) {
+			Log.warn("Closing " + deck.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+		}
+		deckChannel = null;
+	}
+
+	/**
+	 * Hashes of the keys of all lines of a deck with the offsets of the lines, in an open addressing hash table.
+	 */
+	private static final class KeyIndex {
+		private long[] hashes = new long[1024];
+		private long[] offsets = new long[1024];
+		private int size = 0;
+		// line + 1 per slot, 0 if empty
+		private int[] slots;
+		private int mask;
+		private ByteBuffer lineBuf = ByteBuffer.allocate(512);
+
+		/**
+		 * @param length the lines before this offset are indexed
+		 */
+		static KeyIndex build(FileChannel deck, long length) throws IOException {
+			KeyIndex index = new KeyIndex();
+			deck.position(0);
+			LineSource lines = new LineSource(deck, 0);
+			long offset = 0;
+			String line;
+			while (offset < length && (line = lines.next()) != null) {
+				String key = keyOfLine(line);
+				if (key != null) {
+					index.add(hash(key), offset);
+				}
+				offset = lines.getOffset();
+			}
+			index.buildTable();
+			return index;
+		}
+
+		private void add(long hash, long offset) {
+			if (size == hashes.length) {
+				hashes = Arrays.copyOf(hashes, size * 2);
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			hashes[size] = hash;
+			offsets[size] = offset;
+			size++;
+		}
+
+		private void buildTable() {
+			int capacity = Integer.highestOneBit(Math.max(size * 2, 16) - 1) << 1;
+			slots = new int[capacity];
+			mask = capacity - 1;
+			for (int line = 0; line < size; line++) {
+				int slot = (int) hashes[line] & mask;
+				while (slots[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = line + 1;
+			}
+		}
+
+		/**
+		 * Compares the key with the keys of the lines of the same hash read from the deck.
+		 */
+		boolean contains(String key, long hash, FileChannel deck) throws IOException {
+			for (int slot = (int) hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+				int line = slots[slot] - 1;
+				if (hashes[line] == hash && key.equals(keyOfLine(readLine(deck, offsets[line])))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private String readLine(FileChannel deck, long offset) throws IOException {
+			lineBuf.clear();
+			while (true) {
+				int n = deck.read(lineBuf, offset + lineBuf.position());
+				for (int i = 0; i < lineBuf.position(); i++) {
+					if (lineBuf.get(i) == '\n') {
+						return new String(lineBuf.array(), 0, i, StandardCharsets.UTF_8);
+					}
+				}
+				if (n < 0) {
+					return new String(lineBuf.array(), 0, lineBuf.position(), StandardCharsets.UTF_8);
+				}
+				if (!lineBuf.hasRemaining()) {
+					ByteBuffer bigger = ByteBuffer.allocate(lineBuf.capacity() * 2);
+					lineBuf.flip();
+					lineBuf = bigger.put(lineBuf);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Keys imported since the deck was indexed, with their chars stored one after another in one array, so there is no
+	 * object per key. Hashed like {@link KeyIndex}.
+	 */
+	private static final class ImportedKeys {
+		private long[] hashes = new long[1024];
+		// start of each key in chars, the next key starts where it ends
+		private int[] starts = new int[1025];
+		private char[] chars = new char[1 << 16];
+		private int size = 0;
+		// key + 1 per slot, 0 if empty
+		private int[] slots = new int[2048];
+
+		void add(String key, long hash) {
+			if (size + 1 == hashes.length) {
+				hashes = Arrays.copyOf(hashes, hashes.length * 2);
+				starts = Arrays.copyOf(starts, hashes.length + 1);
+			}
+			int start = starts[size];
+			if (start + key.length() > chars.length) {
+				chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + key.length()));
+			}
+			key.getChars(0, key.length(), chars, start);
+			hashes[size] = hash;
+			starts[size + 1] = start + key.length();
+			size++;
+			if (size * 2 > slots.length) {
+				slots = new int[slots.length * 2];
+				for (int i = 0; i < size; i++) {
+					insert(i);
+				}
+			}
+			else {
+				insert(size - 1);
+			}
+		}
+
+		private void insert(int i) {
+			int mask = slots.length - 1;
+			int slot = (int) hashes[i] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = i + 1;
+		}
+
+		boolean contains(String key, long hash) {
+			int mask = slots.length - 1;
+			for (int slot = (int) hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+				int i = slots[slot] - 1;
+				if (hashes[i] == hash && equals(i, key)) return true;
+			}
+			return false;
+		}
+
+		private boolean equals(int i, String key) {
+			int start = starts[i];
+			if (starts[i + 1] - start != key.length()) return false;
+			for (int c = 0; c < key.length(); c++) {
+				if (chars[start + c] != key.charAt(c)) return false;
+			}
+			return true;
+		}
+	}
+}
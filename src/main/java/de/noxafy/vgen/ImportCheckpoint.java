@@ -0,0 +1,149 @@
+package de.noxafy.vgen;
+
+import de.noxafy.utils.Log;
+import de.noxafy.utils.data.LineSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Progress of an import stored next to its source, so an interrupted import resumes where it was last committed. It
+ * holds how far the source was read and how long the destination and the file of failed lines were at that point.
+ * The header stamps size and modification date of the source, so checkpoints of another source are ignored. A check
+ * of the last committed line of the destination tells whether the destination has been rewritten since.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class ImportCheckpoint {
+
+	private static final int MAGIC = 0x76676e43; // "vgnC"
+	private static final int VERSION = 2;
+
+	private final File source;
+	private final File file;
+
+	// committed progress
+	long sourceOffset;
+	long destinationLength;
+	long failedLength;
+	long line;
+	long imported;
+	String destination;
+	// checksum of the key of the last line before destinationLength
+	long destinationCheck;
+
+	ImportCheckpoint(File source) {
+		this.source = source;
+		this.file = new File(source.getPath() + ".import");
+	}
+
+	/**
+	 * @return whether a checkpoint of the current source has been read, otherwise the progress is unchanged
+	 */
+	boolean load() {
+		if (!file.exists()) return false;
+		ByteBuffer data;
+		try {
+			data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		}
+		catch (IOException e) {
+			Log.warn("Reading checkpoint " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return false;
+		}
+		try {
+			if (data.getInt() != MAGIC || data.getInt() != VERSION
+					|| data.getLong() != source.length() || data.getLong() != source.lastModified()) {
+				Log.warn("Checkpoint " + file.getAbsolutePath() + " does not belong to the current source. Ignoring it.");
+				return false;
+			}
+			long sourceOffset = data.getLong();
+			long destinationLength = data.getLong();
+			long failedLength = data.getLong();
+			long line = data.getLong();
+			long imported = data.getLong();
+			long destinationCheck = data.getLong();
+			byte[] destination = new byte[data.getInt()];
+			data.get(destination);
+
+			this.sourceOffset = sourceOffset;
+			this.destinationLength = destinationLength;
+			this.failedLength = failedLength;
+			this.line = line;
+			this.imported = imported;
+			this.destinationCheck = destinationCheck;
+			this.destination = new String(destination, StandardCharsets.UTF_8);
+			return true;
+		}
+		catch (BufferUnderflowException | NegativeArraySizeException e) {
+			Log.warn("Checkpoint " + file.getAbsolutePath() + " is corrupt. Ignoring it.");
+			Log.warn(e.toString());
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the progress to a temporary file first, so the checkpoint is never read half written.
+	 */
+	void write() throws IOException {
+		byte[] destination = this.destination.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer data = ByteBuffer.allocate(4 + 4 + 8 * 8 + 4 + destination.length);
+		data.putInt(MAGIC).putInt(VERSION).putLong(source.length()).putLong(source.lastModified());
+		data.putLong(sourceOffset).putLong(destinationLength).putLong(failedLength).putLong(line).putLong(imported);
+		data.putLong(destinationCheck);
+		data.putInt(destination.length).put(destination);
+		data.flip();
+
+		File tmp = new File(file.getPath() + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				out.write(data);
+			}
+			out.force(false);
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Records the check of the destination as committed, has to be called whenever its length changes.
+	 */
+	void stampDestination() throws IOException {
+		destinationCheck = checkDestination();
+	}
+
+	/**
+	 * @return whether the destination still holds the committed lines, so it can be truncated to them
+	 */
+	boolean isDestinationIntact() throws IOException {
+		return new File(destination).length() >= destinationLength && checkDestination() == destinationCheck;
+	}
+
+	/**
+	 * Checksums the {@link DuplicateFilter#keyOfLine key} of the last line before the committed length. Only word and
+	 * meaning are covered, as voc sessions patch the stats in place.
+	 */
+	private long checkDestination() throws IOException {
+		if (destinationLength == 0) return 0;
+		try (FileChannel in = FileChannel.open(new File(destination).toPath(), StandardOpenOption.READ)) {
+			CRC32 crc = new CRC32();
+			DuplicateFilter.updateKeyChecksum(crc, LineSource.lineBefore(in, destinationLength));
+			return crc.getValue();
+		}
+	}
+
+	void delete() {
+		if (file.exists() && !file.delete()) {
+			Log.warn("Deleting checkpoint " + file.getAbsolutePath() + " failed.");
+		}
+	}
+}
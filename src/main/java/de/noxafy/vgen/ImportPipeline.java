@@ -0,0 +1,191 @@
+package de.noxafy.vgen;
+
+import de.noxafy.utils.data.LineSource;
+import de.noxafy.voc.core.model.Vocabulary;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Converts the lines of a source in three stages: A reader thread cuts them into batches, which are converted on the
+ * common {@link ForkJoinPool}, and the calling thread hands the converted batches to a {@link Sink} in their original
+ * order. At most {@link #MAX_PENDING} batches are on their way, so the reader waits for a slow sink instead of reading
+ * the whole source ahead.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class ImportPipeline {
+
+	private static final int BATCH_SIZE = 1024;
+	private static final int MAX_PENDING = 2 * ForkJoinPool.getCommonPoolParallelism() + 2;
+	// marks the end of the source, never executed
+	private static final ForkJoinTask<Batch> END = ForkJoinTask.adapt(() -> (Batch) null);
+
+	/**
+	 * Final stage of the pipeline, called for each batch in order of the source.
+	 */
+	interface Sink {
+		void write(Batch batch) throws IOException;
+	}
+
+	private ImportPipeline() {
+	}
+
+	/**
+	 * Converts all lines left in the given source and blocks until they are written to the sink.
+	 *
+	 * @param line number of lines read from the source before
+	 * @throws IOException if reading the source or writing the sink failed, the sink has got all batches before
+	 */
+	static void run(LineSource source, long line, Sink sink) throws IOException {
+		Reader reader = new Reader(source, line);
+		Thread thread = new Thread(reader, "import-reader");
+		thread.setDaemon(true);
+		thread.start();
+		try {
+			ForkJoinTask<Batch> task;
+			while ((task = reader.pending.take()) != END) {
+				sink.write(task.join());
+			}
+			if (reader.failure != null) {
+				throw reader.failure;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for converted lines.");
+		}
+		finally {
+			// the reader may still wait for a sink that failed
+			thread.interrupt();
+		}
+	}
+
+	private static final class Reader implements Runnable {
+		private final LineSource source;
+		private final long firstLine;
+		private final BlockingQueue<ForkJoinTask<Batch>> pending = new ArrayBlockingQueue<>(MAX_PENDING);
+		private volatile IOException failure;
+
+		Reader(LineSource source, long firstLine) {
+			this.source = source;
+			this.firstLine = firstLine;
+		}
+
+		@Override
+		public void run() {
+			try {
+				try {
+					Batch batch = new Batch(firstLine);
+					String line;
+					while ((line = source.next()) != null) {
+						batch.add(line);
+						if (batch.size == BATCH_SIZE) {
+							submit(batch);
+							batch = new Batch(batch.firstLine + BATCH_SIZE);
+						}
+					}
+					if (batch.size > 0) {
+						submit(batch);
+					}
+				}
+				catch (IOException e) {
+					failure = e;
+				}
+				pending.put(END);
+			}
+			catch (InterruptedException e) {
+				// writing stopped
+			}
+		}
+
+		private void submit(Batch batch) throws InterruptedException {
+			batch.endOffset = source.getOffset();
+			pending.put(ForkJoinPool.commonPool().submit(batch::convert));
+		}
+	}
+
+	/**
+	 * Consecutive lines of a source with their conversions.
+	 */
+	static final class Batch {
+		private final String[] lines = new String[BATCH_SIZE];
+		private final String[] converted = new String[BATCH_SIZE];
+		private final String[] keys = new String[BATCH_SIZE];
+		private final String[] errors = new String[BATCH_SIZE];
+		private final long firstLine;
+		private int size = 0;
+		private long endOffset;
+
+		private Batch(long firstLine) {
+			this.firstLine = firstLine;
+		}
+
+		private void add(String line) {
+			lines[size++] = line;
+		}
+
+		private Batch convert() {
+			for (int i = 0; i < size; i++) {
+				if (lines[i].isEmpty()) continue;
+				try {
+					Vocabulary voc = VocGenerator.getVoc(lines[i]);
+					converted[i] = VocGenerator.getLine(voc);
+					keys[i] = DuplicateFilter.key(voc.getWord(), voc.getMeaning());
+				}
+				catch (IllegalArgumentException e) {
+					errors[i] = e.toString();
+				}
+			}
+			return this;
+		}
+
+		int size() {
+			return size;
+		}
+
+		String getLine(int i) {
+			return lines[i];
+		}
+
+		/**
+		 * @return the converted line or <code>null</code> if it is empty or failed to be converted
+		 */
+		String getConverted(int i) {
+			return converted[i];
+		}
+
+		/**
+		 * @return the {@link DuplicateFilter#key key} of the converted line or <code>null</code> if there is none
+		 */
+		String getKey(int i) {
+			return keys[i];
+		}
+
+		/**
+		 * @return why the line failed to be converted or <code>null</code> if it did not
+		 */
+		String getError(int i) {
+			return errors[i];
+		}
+
+		/**
+		 * @return the number of the line in the source, starting at 1
+		 */
+		long getLineNumber(int i) {
+			return firstLine + i + 1;
+		}
+
+		/**
+		 * @return the offset in the source after the last line of this batch
+		 */
+		long getEndOffset() {
+			return endOffset;
+		}
+	}
+}
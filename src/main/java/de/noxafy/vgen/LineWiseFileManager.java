@@ -1,20 +1,97 @@
 package de.noxafy.vgen;
 
-import de.noxafy.utils.data.FileManager;
 import de.noxafy.utils.Log;
+import de.noxafy.utils.data.FileManager;
+import de.noxafy.utils.data.LineSink;
+import de.noxafy.utils.data.LineSource;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Reads and writes a file line by line. Imports use {@link #openLines} and {@link #openSink} to stream through files
+ * in constant memory, {@link #load} and {@link #write} stream too but hold all lines as array.
+ *
  * @author noxafy
  * @created 26.10.18
  */
 public class LineWiseFileManager extends FileManager<String[]> {
 
 	LineWiseFileManager(File file) {
-		super(file);
+		super(file, true);
+	}
+
+	/**
+	 * Opens the file to read its lines lazily, mapped into memory.
+	 *
+	 * @param offset byte offset to start reading at
+	 */
+	LineSource openLines(long offset) throws IOException {
+		return LineSource.open(getFile(), offset, isMapped());
+	}
+
+	/**
+	 * Opens the file to append lines after its first bytes, dropping everything after them. The file is created if
+	 * it does not exist.
+	 *
+	 * @param length number of bytes of the file to keep
+	 */
+	LineSink openSink(long length) throws IOException {
+		return LineSink.open(getFile(), length);
+	}
+
+	/**
+	 * Reads the lines one by one from the mapped file instead of building one String of the whole file first.
+	 *
+	 * @return the lines of the file without trailing empty lines
+	 */
+	@NotNull
+	@Override
+	public String[] load() {
+		if (!getFile().exists()) {
+			return new String[0];
+		}
+		List<String> lines = new ArrayList<>();
+		try (LineSource source = openLines(0)) {
+			String line;
+			while ((line = source.next()) != null) {
+				lines.add(line);
+			}
+		}
+		catch (IOException e) {
+			Log.error("Reading from file " + getFile().getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return new String[0];
+		}
+		return trim(lines);
+	}
+
+	/**
+	 * Writes the non-empty lines one by one to a temporary file replacing the file at the end, instead of building
+	 * one String of all lines first.
+	 */
+	@Override
+	public void write(@NotNull String[] data) {
+		persist(() -> {
+			File tmp = getTempFile();
+			try (LineSink sink = LineSink.open(tmp, 0)) {
+				for (String line : data) {
+					if (line.isEmpty()) continue;
+					sink.write(line);
+				}
+				sink.sync();
+			}
+			catch (IOException e) {
+				Log.error("Writing " + data.length + " lines to file " + tmp.getAbsolutePath() + " failed.");
+				Log.error(e.toString());
+				return;
+			}
+			replaceBy(tmp);
+		});
 	}
 
 	@NotNull
@@ -23,12 +100,31 @@ public class LineWiseFileManager extends FileManager<String[]> {
 		if (content == null) {
 			return new String[0];
 		}
+		List<String> lines = new ArrayList<>();
+		int lineStart = 0;
+		int lineEnd;
+		while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+			lines.add(content.substring(lineStart, lineEnd));
+			lineStart = lineEnd + 1;
+		}
+		if (lineStart < content.length()) {
+			lines.add(content.substring(lineStart));
+		}
+		return trim(lines);
+	}
 
-		if (content.isEmpty()) {
+	@NotNull
+	private String[] trim(List<String> lines) {
+		if (lines.isEmpty()) {
 			Log.info("File " + getFile().getAbsolutePath() + " is empty. No line processed.");
 			return new String[0];
 		}
-		return content.split("\n");
+		// drop trailing empty lines as String#split does
+		int size = lines.size();
+		while (size > 0 && lines.get(size - 1).isEmpty()) {
+			size--;
+		}
+		return lines.subList(0, size).toArray(new String[0]);
 	}
 
 	@NotNull
@@ -4,6 +4,8 @@ import de.noxafy.utils.Log;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author noxafy
@@ -11,8 +13,13 @@ import java.io.IOException;
  */
 public class Main {
 
-	private static File from = null;
+	// csv files or standard input to read the items from
+	private static final List<File> from = new ArrayList<>();
 	private static File to = null;
+	// number of vocs to be generated or -1 to convert from
+	private static long generate = -1;
+	private static long seed = 0;
+	private static long now = System.currentTimeMillis();
 
 	public static void main(String[] args) {
 		Log.addLogger(System.out);
@@ -20,8 +27,17 @@ public class Main {
 
 		if (!parseArgs(args)) return;
 
-		if (from == null || to == null) {
-			if (to == null && from != null) {
+		if (generate >= 0) {
+			if (to == null) {
+				Log.error("Please give a csv where to write the generated deck.");
+				return;
+			}
+			DeckSynthesizer.generate(to, generate, seed, now);
+			return;
+		}
+
+		if (from.isEmpty() || to == null) {
+			if (to == null && !from.isEmpty()) {
 				Log.error("Please give a csv where to write the generated items.");
 			}
 			else {
@@ -49,11 +65,20 @@ public class Main {
 							Log.setLevel(Log.Level.DEBUG);
 							break;
 						case 'f':
-							from = evalFile(args, ++i);
+							from.add(evalSource(args, ++i));
 							break;
 						case 't':
 							to = ensureFile(args, ++i);
 							break;
+						case 'g':
+							generate = evalLong(args, ++i, "number of vocs to generate");
+							break;
+						case 's':
+							seed = evalLong(args, ++i, "seed");
+							break;
+						case 'n':
+							now = evalLong(args, ++i, "reference time");
+							break;
 						case 'h':
 							logHelpMessage();
 							return false;
@@ -70,7 +95,39 @@ public class Main {
 	}
 
 	private static void logHelpMessage() {
-		Log.info("Unfortunately help message is NIY.");
+		Log.info("Usage: vgen [-d] -f csv [-f csv ...] -t csv | -g count [-s seed] [-n time] -t csv\n" +
+				"\t-f csv\tConvert the vocs of this csv and append them to the one given by -t.\n" +
+				"\t\tOnly lines that failed to be converted are left in it. An interrupted import resumes when run again.\n" +
+				"\t\tGive -f several times to import several csvs in the given order, - reads from standard input.\n" +
+				"\t\tVocs whose word and meaning are already in the destination are skipped.\n" +
+				"\t-g count\tGenerate a synthetic deck of count vocs into the csv given by -t.\n" +
+				"\t-s seed\tSeed of the generated deck, the same seed gives the same deck. Defaults to 0.\n" +
+				"\t-n time\tReference time of the generated deck (unix time, in milliseconds). Defaults to now.\n" +
+				"\t-d\tPrint debug information.");
+	}
+
+	private static long evalLong(String[] args, int i, String name) {
+		if (i < args.length) {
+			try {
+				return Long.parseLong(args[i]);
+			}
+			catch (NumberFormatException e) {
+				Log.error("Please give a number as " + name + ". See --help for more information.");
+				System.exit(1);
+			}
+		}
+		else {
+			Log.error("Please give a " + name + ". See --help for more information.");
+			System.exit(1);
+		}
+		return 0;
+	}
+
+	private static File evalSource(String[] args, int i) {
+		if (i < args.length && "-".equals(args[i])) {
+			return VocGenerator.STDIN;
+		}
+		return evalFile(args, i);
 	}
 
 	private static File evalFile(String[] args, int i) {
@@ -2,12 +2,18 @@ package de.noxafy.vgen;
 
 import de.noxafy.utils.Log;
 import de.noxafy.utils.TooShortLineException;
+import de.noxafy.utils.data.LineSink;
+import de.noxafy.utils.data.LineSource;
+import de.noxafy.voc.core.fileManager.FixedStatsLayout;
 import de.noxafy.voc.core.model.Vocabulary;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 
 /**
  * @author noxafy
@@ -15,43 +21,212 @@ import java.nio.charset.StandardCharsets;
  */
 final class VocGenerator {
 
-	static void generate(File from, File to) {
-		final LineWiseFileManager fileManager = new LineWiseFileManager(from);
-		String[] lines = fileManager.load();
-		String res;
-		int success = 0;
-		for (int i = 0; i < lines.length; i++) {
-			// read voc from line
-			Vocabulary voc;
-			try {
-				voc = getVoc(lines[i]);
+	// source read from standard input
+	static final File STDIN = new File("-");
+
+	// vocs imported between two checkpoints
+	private static final int COMMIT_INTERVAL = 10000;
+
+	/**
+	 * Appends the vocs of the given sources to the destination, one source after another, in order of their lines.
+	 * Each source is converted by an {@link ImportPipeline} on all cores. Vocs already in the destination or imported
+	 * before are skipped, see {@link DuplicateFilter}.
+	 *
+	 * @param sources csv files or {@link #STDIN}
+	 */
+	static void generate(List<File> sources, File to) {
+		long imported = 0;
+		try (DuplicateFilter duplicates = new DuplicateFilter(to)) {
+			for (File from : sources) {
+				if (sources.size() > 1) {
+					Log.info("Importing " + (from == STDIN ? "standard input" : from.getAbsolutePath()));
+				}
+				long cnt = from == STDIN ? importStdin(to, duplicates) : importFile(from, to, duplicates);
+				if (cnt < 0) return;
+				imported += cnt;
+			}
+			duplicates.save();
+			Log.info(imported + " new vocs added.");
+			if (duplicates.getDuplicates() > 0) {
+				Log.info(duplicates.getDuplicates() + " duplicates skipped.");
 			}
-			catch (IllegalArgumentException e) {
-				Log.warn("Failed to process line " + (i + 1) + ": " + lines[i]);
-				Log.warn(e.toString());
-				continue;
+		}
+	}
+
+	/**
+	 * Appends the vocs of the source to the destination in one pass. Progress is committed to an
+	 * {@link ImportCheckpoint} regularly, so an interrupted import resumes at the last commit when run again. Lines
+	 * failing to be processed are collected next to the source and replace it at the end, so only they are left.
+	 *
+	 * @return the number of vocs imported or -1 if the import failed
+	 */
+	private static long importFile(File from, File to, DuplicateFilter duplicates) {
+		if (from.length() == 0) {
+			Log.info("File " + from.getAbsolutePath() + " is empty. No line processed.");
+			return 0;
+		}
+		File failedFile = new File(from.getPath() + ".failed");
+		ImportCheckpoint checkpoint = new ImportCheckpoint(from);
+		if (checkpoint.load()) {
+			if (!to.getAbsolutePath().equals(checkpoint.destination)) {
+				Log.error("An interrupted import of " + from.getAbsolutePath() + " into " + checkpoint.destination
+						+ " is pending. Give that csv as destination to resume it.");
+				return -1;
 			}
-			// parse voc to line
-			res = getLine(voc);
-			Log.info("Processing " + res);
-			// add to destination file
 			try {
-				appendNewVoc(res, to);
+				if (!checkpoint.isDestinationIntact()) {
+					Log.error("Destination " + to.getAbsolutePath() + " has been rewritten since the import of "
+							+ from.getAbsolutePath() + " was interrupted, so it cannot be resumed. Delete "
+							+ from.getAbsolutePath() + ".import to import the whole source again.");
+					return -1;
+				}
 			}
 			catch (IOException e) {
-				Log.error("Writing line [" + res + "] to " + to.getAbsolutePath() + " failed. Source (" + from.getAbsolutePath() + ") not " + "updated.");
-				throw new RuntimeException(e);
+				Log.error("Checking destination " + to.getAbsolutePath() + " failed.");
+				Log.error(e.toString());
+				return -1;
+			}
+			Log.info("Resuming interrupted import at line " + (checkpoint.line + 1) + ".");
+		}
+		else {
+			checkpoint.destination = to.getAbsolutePath();
+			checkpoint.destinationLength = to.length();
+		}
+
+		// drop everything written after the last commit
+		if (to.length() > checkpoint.destinationLength) {
+			duplicates.reset();
+		}
+		try (LineSource lines = new LineWiseFileManager(from).openLines(checkpoint.sourceOffset);
+		     LineSink out = new LineWiseFileManager(to).openSink(checkpoint.destinationLength);
+		     LineSink failed = new LineWiseFileManager(failedFile).openSink(checkpoint.failedLength)) {
+			checkpoint.stampDestination();
+			checkpoint.write();
+			Destination destination = new Destination(out, failed, checkpoint, duplicates);
+			ImportPipeline.run(lines, checkpoint.line, destination);
+			destination.commit(lines.getOffset());
+		}
+		catch (IOException e) {
+			Log.error("Importing " + from.getAbsolutePath() + " into " + to.getAbsolutePath() + " failed. "
+					+ "Run again to resume from line " + (checkpoint.line + 1) + ".");
+			Log.error(e.toString());
+			return -1;
+		}
+
+		// update source file at once, only the failed lines are left
+		try {
+			Files.move(failedFile.toPath(), from.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Log.error("Replacing source " + from.getAbsolutePath() + " by its failed lines failed. "
+					+ "Run again to complete the import.");
+			Log.error(e.toString());
+			return -1;
+		}
+		checkpoint.delete();
+		return checkpoint.imported;
+	}
+
+	/**
+	 * Appends the vocs read from standard input to the destination. Failed lines are only reported.
+	 *
+	 * @return the number of vocs imported or -1 if the import failed
+	 */
+	private static long importStdin(File to, DuplicateFilter duplicates) {
+		// standard input stays open
+		LineSource lines = new LineSource(Channels.newChannel(System.in), 0);
+		try (LineSink out = new LineWiseFileManager(to).openSink(to.length())) {
+			Destination destination = new Destination(out, null, null, duplicates);
+			ImportPipeline.run(lines, 0, destination);
+			destination.commit(0);
+			return destination.imported;
+		}
+		catch (IOException e) {
+			Log.error("Importing standard input into " + to.getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return -1;
+		}
+	}
+
+	/**
+	 * Last stage of an import. Writes the converted lines to the destination unless they are duplicates and the failed
+	 * ones to their own file, if given, and commits the progress to the checkpoint, if given.
+	 */
+	private static final class Destination implements ImportPipeline.Sink {
+		private final LineSink out;
+		@Nullable
+		private final LineSink failed;
+		@Nullable
+		private final ImportCheckpoint checkpoint;
+		private final DuplicateFilter duplicates;
+		private long imported;
+		private long uncommitted = 0;
+		// number of lines of the source processed
+		private long line;
+
+		Destination(LineSink out, @Nullable LineSink failed, @Nullable ImportCheckpoint checkpoint,
+		            DuplicateFilter duplicates) {
+			this.out = out;
+			this.failed = failed;
+			this.checkpoint = checkpoint;
+			this.duplicates = duplicates;
+			this.imported = checkpoint == null ? 0 : checkpoint.imported;
+			this.line = checkpoint == null ? 0 : checkpoint.line;
+		}
+
+		@Override
+		public void write(ImportPipeline.Batch batch) throws IOException {
+			for (int i = 0; i < batch.size(); i++) {
+				String res = batch.getConverted(i);
+				if (res != null) {
+					if (duplicates.isDuplicate(batch.getKey(i))) {
+						Log.debug("Skipping duplicate in line %d: %s", batch.getLineNumber(i), batch.getLine(i));
+						continue;
+					}
+					Log.debug("Processing %s", res);
+					out.write(res);
+					imported++;
+					uncommitted++;
+				}
+				else if (batch.getError(i) != null) {
+					Log.warn("Failed to process line " + batch.getLineNumber(i) + ": " + batch.getLine(i));
+					Log.warn(batch.getError(i));
+					if (failed != null) {
+						failed.write(batch.getLine(i));
+					}
+				}
 			}
-			// update source file
-			lines[i] = "";
-			fileManager.write(lines);
+			line = batch.getLineNumber(batch.size() - 1);
+			if (checkpoint != null && uncommitted >= COMMIT_INTERVAL) {
+				commit(batch.getEndOffset());
+			}
+		}
 
-			success++;
+		/**
+		 * Writes all lines processed so far and records the progress.
+		 *
+		 * @param sourceOffset offset in the source after the last line processed
+		 */
+		void commit(long sourceOffset) throws IOException {
+			out.sync();
+			uncommitted = 0;
+			if (checkpoint == null || failed == null) return;
+			failed.sync();
+			checkpoint.sourceOffset = sourceOffset;
+			checkpoint.destinationLength = out.getOffset();
+			checkpoint.failedLength = failed.getOffset();
+			checkpoint.line = line;
+			checkpoint.imported = imported;
+			checkpoint.stampDestination();
+			checkpoint.write();
+			Log.debug("Committed %d vocs up to line %d", imported, checkpoint.line);
 		}
-		Log.info(success + " new vocs added.");
 	}
 
-	private static Vocabulary getVoc(String org_line) throws IllegalArgumentException {
+	static Vocabulary getVoc(String org_line) throws IllegalArgumentException {
+		if (org_line.length() < 2) {
+			throw new TooShortLineException(org_line);
+		}
 		String line = org_line.substring(1, org_line.length() - 1);
 		String[] args = line.split("\",\"");
 
@@ -100,19 +275,21 @@ final class VocGenerator {
 		return new Vocabulary(word, meaning, mnemonic, added, lastAsked, asked, failed, succeeded_in_a_row);
 	}
 
-	private static String getLine(Vocabulary voc) {
-		return quote(voc.getWord(), true) +
-				quote(voc.getMeaning(), true) +
-				quote(voc.getMnemonic(), true) +
-				quote(voc.getAdded(), true) +
-				quote((voc.getLastAsked() == 0) ? "" : voc.getLastAsked(), true) +
-				quote(voc.getAsked(), true) +
-				quote(voc.getFailed(), true) +
-				quote(voc.getSucceeded_in_a_row(), false);
+	/**
+	 * Writes the stats in {@link FixedStatsLayout fixed layout}, so answers to imported vocs are patched in place.
+	 */
+	static String getLine(Vocabulary voc) {
+		StringBuilder line = new StringBuilder();
+		line.append(quote(voc.getWord()))
+				.append(quote(voc.getMeaning()))
+				.append(quote(voc.getMnemonic()))
+				.append(quote(voc.getAdded()));
+		return FixedStatsLayout.appendStats(line, voc.getLastAsked(), voc.getAsked(), voc.getFailed(),
+				voc.getSucceeded_in_a_row()).toString();
 	}
 
-	private static String quote(Object inner, boolean comma) {
-		return "\"" + inner + ((comma) ? "\"," : "\"");
+	private static String quote(Object inner) {
+		return "\"" + inner + "\",";
 	}
 
 	private static int parseInt(String type, String toParse) {
@@ -136,11 +313,4 @@ final class VocGenerator {
 		}
 		return res;
 	}
-
-	private static void appendNewVoc(String line, File to) throws IOException {
-		line += "\n";
-		try (FileOutputStream out = new FileOutputStream(to, true)) {
-			out.write(line.getBytes(StandardCharsets.UTF_8));
-		}
-	}
 }
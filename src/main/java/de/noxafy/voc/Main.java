@@ -36,12 +36,18 @@ public class Main {
 		// UI
 		final UserInterface ui = new CLUserInterface();
 
+		if (Settings.justSummarize) {
+			// answered from the statistics sidecar if possible, without loading the vocs
+			ui.summarize(vocabularyFileManager.loadStatistics());
+			return;
+		}
+
 		// start voc routine
 		// TODO: undo
-		final AskingRoutine askingRoutine = new AskingRoutine(settingsFileManager, vocabularyFileManager, ui);
-		if (!Settings.justSummarize) {
-			askingRoutine.run();
-		}
+		final AskingRoutine askingRoutine = Settings.SEED == null
+				? new AskingRoutine(settingsFileManager, vocabularyFileManager, ui)
+				: AskingRoutine.seeded(settingsFileManager, vocabularyFileManager, ui, Settings.SEED);
+		askingRoutine.run();
 		askingRoutine.summarize();
 	}
 }
@@ -1,6 +1,8 @@
 package de.noxafy.voc.cli;
 
 import de.noxafy.utils.Log;
+import de.noxafy.utils.data.WriteBehind;
+import de.noxafy.utils.metrics.Metrics;
 import de.noxafy.voc.Main;
 import de.noxafy.voc.cli.lang.Lang;
 import de.noxafy.voc.core.Settings;
@@ -19,12 +21,15 @@ import static de.noxafy.voc.cli.CLUserInterface.TRAINING_WINDOW_DIMENSIONS;
  */
 public class CLArgsParser {
 
-	private static final String usage = "Usage: " + bold("voc") + " -h | [-n|-t] [-l " + underline("lang") + "] [-v|-d] [-s] -f " + underline("csv");
+	private static final String usage = "Usage: " + bold("voc") + " -h | [-n|-t] [-l " + underline("lang") + "] [-v|-d] [-s] [-r " + underline("seed") + "] [-m " + underline("file") + "] -f " + underline("csv");
 
 	static boolean printNewlineAtExit = true;
 	static {
-		// Print newline after sigint
+		// Write pending changes and metrics and print newline after sigint
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			WriteBehind.flush();
+			if (Settings.METRICS_FILE != null) Metrics.dump(Settings.METRICS_FILE);
+			Log.flush();
 			if (printNewlineAtExit) System.out.println();
 		}));
 	}
@@ -84,6 +89,12 @@ public class CLArgsParser {
 						case 'f':
 							Main.voc_file = evalFile(args, ++i);
 							break;
+						case 'r':
+							Settings.SEED = evalSeed(args, ++i);
+							break;
+						case 'm':
+							Settings.METRICS_FILE = evalMetricsFile(args, ++i);
+							break;
 						default:
 							throw new IllegalArgumentException("Wrong argument: " + args[i] + "\n" +
 									usage + " -- " + "See -h for more help.");
@@ -135,6 +146,9 @@ public class CLArgsParser {
 				"\t" + bold("-v") + "\tBe verbose.\n" +
 				"\t" + bold("-d") + "\tPrint very much debug information while asking.\n" +
 				"\t" + bold("-s") + "\tShow current statistics as shown after routine finished and exit.\n" +
+				"\t" + bold("-r") + " " + underline("seed") + "\tAsk reproducibly: the same " + underline("seed") + " and database always give the same questions in the same order.\n" +
+				"\t" + "\tTime is simulated, starting at the latest date in the database. Answers are not written.\n" +
+				"\t" + bold("-m") + " " + underline("file") + "\tWrite timings of loading, writing and scheduling and other metrics as JSON to " + underline("file") + " at exit.\n" +
 				"\t" + bold("-f") + " " + underline("csv") + "\tRead vocabulary database from a specified " + underline("csv") + " file.\n" +
 				"\n" +
 				"The source of vocabularies is " + underline("csv") + " and is hence obligatory.\n" +
@@ -147,7 +161,7 @@ public class CLArgsParser {
 				"\t6. how often it has ever been asked\n" +
 				"\t7. how often the user ever failed to answer\n" +
 				"\t8. how often user succeeded in a row\n" +
-				"The last four stats are used by rating calculation.\n" +
+				"The last four stats are used by rating calculation. They are zero-padded to a fixed width, so they can be updated in place.\n" +
 				"If 6. is not 0, the last stat (succeeded in a row) is used for forgetting time calculation:\n" +
 				"\tLEVEL\t\tS. IN A ROW\tFORGETTING TIME\n" +
 				"\tUnknown:\t0-2\t\tinstant\n" +
@@ -180,6 +194,33 @@ public class CLArgsParser {
 		}
 	}
 
+	private static long evalSeed(String[] args, int i) throws IllegalArgumentException {
+		if (i < args.length) {
+			try {
+				return Long.parseLong(args[i]);
+			}
+			catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Please give a number as seed. See -h for more help.");
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Please give a seed. See -h for more help.");
+		}
+	}
+
+	private static File evalMetricsFile(String[] args, int i) throws IllegalArgumentException {
+		if (i < args.length) {
+			File metrics_file = new File(args[i]);
+			if (metrics_file.isDirectory()) {
+				throw new IllegalArgumentException("Please give a file to write metrics to, not a directory.");
+			}
+			return metrics_file;
+		}
+		else {
+			throw new IllegalArgumentException("Please give a path to write metrics to. See -h for more information.");
+		}
+	}
+
 	private static File evalFile(String[] args, int i) throws IllegalArgumentException {
 		if (i < args.length) {
 			File voc_file = new File(args[i]);
@@ -6,11 +6,9 @@ import de.noxafy.voc.cli.lang.Strings;
 import de.noxafy.voc.core.Settings;
 import de.noxafy.voc.core.UserInterface;
 import de.noxafy.voc.core.model.Vocabulary;
-import de.noxafy.voc.core.model.VocabularyBase;
+import de.noxafy.voc.core.model.VocabularyStatistics;
 
 import java.io.IOException;
-import java.util.EnumMap;
-import java.util.List;
 import java.util.Random;
 
 import static de.noxafy.voc.core.model.Vocabulary.KnowledgeLevel.UNKNOWN;
@@ -103,6 +101,8 @@ public class CLUserInterface implements UserInterface {
 	}
 
 	private void tell(String message) {
+		// keep order with log messages printed in background
+		Log.flush();
 		System.out.print(message);
 	}
 
@@ -120,26 +120,20 @@ public class CLUserInterface implements UserInterface {
 	}
 
 	@Override
-	public void summarize(VocabularyBase base) {
-		if (base.isEmpty()) return;
-
-		final List<Vocabulary> todo = base.getTodo();
-		final List<Vocabulary> unknowns = base.getUnknowns();
-		final List<Vocabulary> asked_vocs = base.getAskedVocs();
-		final List<Vocabulary> new_vocs = base.getNewVocs();
+	public void summarize(VocabularyStatistics stats) {
+		if (stats.size() == 0) return;
 
 		final int statistics_length = 80;
-		todo.addAll(unknowns);
 
-		if (todo.isEmpty()) {
+		if (stats.getTodo() == 0) {
 			tellLn(str.getDoneForNow());
 		}
 
 		tellLn(str.getStatistics());
-		int number_vocs = asked_vocs.size() + new_vocs.size();
+		int number_vocs = stats.size();
 
-		final double perc_todo = todo.size() / (double) number_vocs;
-		final double perc_new = new_vocs.size() / (double) number_vocs;
+		final double perc_todo = stats.getTodo() / (double) number_vocs;
+		final double perc_new = stats.getNew() / (double) number_vocs;
 
 		int todo_signs = (int) Math.round(perc_todo * statistics_length);
 		int new_signs = (int) Math.round(perc_new * statistics_length);
@@ -156,56 +150,29 @@ public class CLUserInterface implements UserInterface {
 		}
 
 		tell(String.format("\n" + str.getKnown() + ": %d/%d (%.2f%%); ",
-				asked_vocs.size() - todo.size(), number_vocs, (1 - perc_todo - perc_new) * 100));
-		tell(String.format(str.getTodo() + ": %d/%d (%.2f%%); ", todo.size(), number_vocs, perc_todo * 100));
-		tellLn(String.format(str.getNew() + ": %d/%d (%.2f%%)", new_vocs.size(), number_vocs, perc_new * 100));
-
-		// map for cnt level
-		EnumMap<Vocabulary.KnowledgeLevel, Integer> knowledgeLevelCnts = new EnumMap<>(Vocabulary.KnowledgeLevel.class);
-
-		// get highest siar and create fitting array for siar cnt
-		int siar_highest = 0;
-		for (Vocabulary v : asked_vocs) {
-			if (v.getSucceeded_in_a_row() > siar_highest) siar_highest = v.getSucceeded_in_a_row();
-		}
-		int[] siarCnts = new int[siar_highest + 1];
-
-		// cnt vocs
-		for (Vocabulary v : asked_vocs) {
-			int siar = v.getSucceeded_in_a_row();
-			// push siar
-			siarCnts[siar]++;
-
-			// push level
-			knowledgeLevelCnts.compute(v.getLevel(), (level, cnt) -> (cnt == null) ? 1 : ++cnt);
-		}
-
-		// cnt known vocs by all minus to do
-		EnumMap<Vocabulary.KnowledgeLevel, Integer> knownLevelCnts = new EnumMap<>(knowledgeLevelCnts);
-		int[] knownSiarCnts = siarCnts.clone();
-		for (Vocabulary v : todo) {
-			knownSiarCnts[v.getSucceeded_in_a_row()]--;
-			knownLevelCnts.compute(v.getLevel(), (level, cnt) -> (cnt == null) ? 1 : --cnt);
-		}
+				stats.getKnown(), number_vocs, (1 - perc_todo - perc_new) * 100));
+		tell(String.format(str.getTodo() + ": %d/%d (%.2f%%); ", stats.getTodo(), number_vocs, perc_todo * 100));
+		tellLn(String.format(str.getNew() + ": %d/%d (%.2f%%)", stats.getNew(), number_vocs, perc_new * 100));
 
 		// print results
 		Vocabulary.KnowledgeLevel currentLevel = UNKNOWN;
-		for (int i = 3; i < siarCnts.length; i++) {
+		int siar_highest = stats.getHighestSucceededInARow();
+		for (int i = 3; i <= siar_highest; i++) {
 			Vocabulary.KnowledgeLevel correspondingLevel = Vocabulary.KnowledgeLevel.decide(i);
 			if (correspondingLevel != currentLevel) {
 				currentLevel = correspondingLevel;
-				Integer levelCnt = knowledgeLevelCnts.get(currentLevel);
-				Integer knownLevelCnt = knownLevelCnts.get(currentLevel);
+				int levelCnt = stats.getAsked(currentLevel);
+				int knownLevelCnt = stats.getKnown(currentLevel);
 				double perc_level_known = (double) knownLevelCnt / levelCnt;
 				tellLn(String.format("%s: %d/%d (%.2f%%)", currentLevel.name(), knownLevelCnt, levelCnt,
 						perc_level_known * 100));
 			}
 
-			double perc_known = (double) knownSiarCnts[i] / siarCnts[i];
-			tellLn(String.format("\t%d: %d/%d (%.2f%%)", i, knownSiarCnts[i], siarCnts[i], perc_known * 100));
+			double perc_known = (double) stats.getKnown(i) / stats.getAsked(i);
+			tellLn(String.format("\t%d: %d/%d (%.2f%%)", i, stats.getKnown(i), stats.getAsked(i), perc_known * 100));
 		}
 
-		if (!unknowns.isEmpty()) tellLn(unknowns.size() + str.getUnknownVocsLeft());
+		if (stats.getUnknown() > 0) tellLn(stats.getUnknown() + str.getUnknownVocsLeft());
 		CLArgsParser.printNewlineAtExit = false;
 	}
 
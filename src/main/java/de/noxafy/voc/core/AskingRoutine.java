@@ -1,16 +1,30 @@
 package de.noxafy.voc.core;
 
+import de.noxafy.utils.Clock;
 import de.noxafy.utils.Log;
+import de.noxafy.utils.ManualClock;
+import de.noxafy.utils.metrics.Counter;
+import de.noxafy.utils.metrics.Histogram;
+import de.noxafy.utils.metrics.Metrics;
 import de.noxafy.voc.core.fileManager.SettingsFileManager;
 import de.noxafy.voc.core.fileManager.VocabularyFileManager;
 import de.noxafy.voc.core.model.Vocabulary;
 import de.noxafy.voc.core.model.VocabularyBase;
 
+import java.util.Random;
+
 /**
  * @author noxafy
  * @created 28.08.17
  */
 public class AskingRoutine {
+	// time that passes per question in seeded runs
+	static final long SEEDED_MILLIS_PER_QUESTION = 5000;
+
+	private static final Histogram loadTime = Metrics.histogram("deck.load");
+	private static final Counter correctAnswers = Metrics.counter("session.answers.correct");
+	private static final Counter wrongAnswers = Metrics.counter("session.answers.wrong");
+
 	private final SettingsFileManager settingsFileManager;
 	private final VocabularyFileManager vocabularyFileManager;
 
@@ -18,17 +32,52 @@ public class AskingRoutine {
 	private final VocabularyBase vocabularyBase;
 
 	private final UserInterface ui;
+	private final Random random;
+	// only set in seeded runs, advanced after each question
+	private ManualClock manualClock;
+	// whether answers are kept from the database, as in seeded runs answered at simulated times
+	private boolean dryRun = false;
 
 	public AskingRoutine(SettingsFileManager settingsFileManager, VocabularyFileManager vocabularyFileManager, UserInterface ui) {
+		this(settingsFileManager, vocabularyFileManager, ui, Clock.SYSTEM, new Random());
+	}
+
+	/**
+	 * @param clock  gives the time vocs are scheduled and answered at
+	 * @param random source of all random decisions while asking
+	 */
+	public AskingRoutine(SettingsFileManager settingsFileManager, VocabularyFileManager vocabularyFileManager, UserInterface ui,
+	                     Clock clock, Random random) {
 		this.settingsFileManager = settingsFileManager;
 		this.vocabularyFileManager = vocabularyFileManager;
 		this.ui = ui;
+		this.random = random;
 
 		settings = settingsFileManager.load();
 
-		long now = System.currentTimeMillis();
+		long start = System.nanoTime();
 		vocabularyBase = vocabularyFileManager.load();
-		Log.verbose("Loaded %d vocs in %d ms", vocabularyBase.size(), System.currentTimeMillis() - now);
+		loadTime.recordSince(start);
+		Metrics.gauge("deck.size").set(vocabularyBase.size());
+		Log.verbose("Loaded %d vocs in %d ms", vocabularyBase.size(), (System.nanoTime() - start) / 1000000);
+		vocabularyBase.setClock(clock);
+		vocabularyBase.setRandom(random);
+	}
+
+	/**
+	 * Creates a routine asking the same vocs in the same order for the same seed and database. Its clock starts at the
+	 * latest time stamp of the database and advances by a fixed amount after each question. Answers given at these
+	 * simulated times are not written.
+	 */
+	public static AskingRoutine seeded(SettingsFileManager settingsFileManager, VocabularyFileManager vocabularyFileManager,
+	                                   UserInterface ui, long seed) {
+		ManualClock clock = new ManualClock(0);
+		AskingRoutine routine = new AskingRoutine(settingsFileManager, vocabularyFileManager, ui, clock, new Random(seed));
+		clock.set(routine.vocabularyBase.getStore().getLatestTimestamp());
+		routine.manualClock = clock;
+		routine.dryRun = true;
+		Log.verbose("Seeded run with seed %d starting at %d, answers are not written", seed, clock.millis());
+		return routine;
 	}
 
 	public void run() {
@@ -52,13 +101,20 @@ public class AskingRoutine {
 			Vocabulary next = vocabularyBase.getNextVocabulary();
 			ask(next);
 			vocabularyBase.update();
-			writeOutChanges();
+			writeOutChanges(next);
 			ui.prepareForNext();
+			if (manualClock != null) {
+				manualClock.advance(SEEDED_MILLIS_PER_QUESTION);
+			}
+		}
+		if (!dryRun) {
+			// fold answer journal into database
+			vocabularyFileManager.write(vocabularyBase);
 		}
 	}
 
 	private void ask(Vocabulary voc) {
-		boolean askWord = Math.random() < 0.5;
+		boolean askWord = random.nextBoolean();
 		if (askWord) {
 			ui.doAsk(voc.getWord());
 			ui.waitForUserFinished();
@@ -71,26 +127,30 @@ public class AskingRoutine {
 		}
 		int siar_before = voc.getSucceeded_in_a_row();
 		if (ui.isCorrect()) {
+			correctAnswers.increment();
 			voc.succeeded();
 			if (voc.isKnown()) {
 				ui.praiseUser();
 			}
 		}
 		else {
+			wrongAnswers.increment();
 			voc.failed();
 		}
 
-		Log.verbose(siar_before + " -> " + voc.getSucceeded_in_a_row()
-				+ " (" + Vocabulary.KnowledgeLevel.decide(siar_before) + " -> " + voc.getLevel() + ")");
+		if (Log.isLevel(Log.Level.VERBOSE)) {
+			Log.verbose(siar_before + " -> " + voc.getSucceeded_in_a_row()
+					+ " (" + Vocabulary.KnowledgeLevel.decide(siar_before) + " -> " + voc.getLevel() + ")");
+		}
 	}
 
 	public void summarize() {
-		vocabularyBase.generateTodo();
-		ui.summarize(vocabularyBase);
+		ui.summarize(vocabularyBase.getStatistics());
 	}
 
-	private void writeOutChanges() {
-		vocabularyFileManager.write(vocabularyBase);
+	private void writeOutChanges(Vocabulary voc) {
+		if (dryRun) return;
+		vocabularyFileManager.writeAnswer(vocabularyBase, voc);
 		//settingsFileManager.write(settings); // settings do not change currently
 	}
 }
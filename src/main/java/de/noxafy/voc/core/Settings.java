@@ -2,6 +2,8 @@ package de.noxafy.voc.core;
 
 import de.noxafy.voc.cli.lang.Lang;
 
+import java.io.File;
+
 /**
  * @author noxafy
  * @created 28.08.17
@@ -12,13 +14,20 @@ public class Settings {
 	// shrink window on start and clear after each voc
 	public static boolean TRAINING_MODE = false;
 	public static boolean justSummarize = false;
+	// seed for reproducible runs, null for a random one
+	public static Long SEED = null;
+	// file the metrics are written to at exit, null for none
+	public static File METRICS_FILE = null;
 
 	public final int NUMBER_SIMUL_VOCS;
 	// should not be bigger than the previous two
 	public final int NUMBER_NEW_VOCS;
+	// pick the latest added new vocs instead of random ones
+	public final boolean NEW_VOCS_NEWEST_FIRST;
 
-	public Settings(int number_simul_vocs, int number_new_vocs_at_start) {
+	public Settings(int number_simul_vocs, int number_new_vocs_at_start, boolean new_vocs_newest_first) {
 		NUMBER_SIMUL_VOCS = number_simul_vocs;
 		NUMBER_NEW_VOCS = number_new_vocs_at_start;
+		NEW_VOCS_NEWEST_FIRST = new_vocs_newest_first;
 	}
 }
@@ -1,6 +1,6 @@
 package de.noxafy.voc.core;
 
-import de.noxafy.voc.core.model.VocabularyBase;
+import de.noxafy.voc.core.model.VocabularyStatistics;
 
 /**
  * @author noxafy
@@ -25,7 +25,7 @@ public interface UserInterface {
 
 	void praiseUser();
 
-	void summarize(VocabularyBase base);
+	void summarize(VocabularyStatistics stats);
 
 	void bye();
 
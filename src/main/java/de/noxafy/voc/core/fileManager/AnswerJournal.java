@@ -0,0 +1,162 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.Log;
+import de.noxafy.voc.core.model.Vocabulary;
+import de.noxafy.voc.core.model.VocabularyStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Append-only journal of answer outcomes stored next to a vocabulary database. Each answer is stored as a fixed-size
+ * record containing the new stats of the asked voc, so appending costs the same regardless of the database size.
+ * The header stamps the size and modification date of the database the records apply to.
+ * Records are idempotent, so replaying a record already contained in the database does no harm.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class AnswerJournal {
+
+	private static final int MAGIC = 0x766f634a; // "vocJ"
+	private static final int HEADER_SIZE = 4 + 8 + 8;
+	// index, lastAsked, asked, failed, succeeded_in_a_row
+	static final int RECORD_SIZE = 4 + 8 + 4 + 4 + 4;
+
+	private final File file;
+	private FileChannel channel;
+	private long size;
+
+	AnswerJournal(File database) {
+		this.file = new File(database.getPath() + ".journal");
+		this.size = file.length();
+	}
+
+	/**
+	 * Applies all records of the journal to the given vocs, if the journal belongs to the given database state.
+	 * A journal of another database state is discarded.
+	 *
+	 * @param vocs     vocs as loaded from the database
+	 * @param database the database the vocs were loaded from
+	 * @return indices of the vocs changed by the journal
+	 */
+	BitSet replay(VocabularyStore vocs, File database) {
+		BitSet replayed = new BitSet();
+		if (!file.exists()) return replayed;
+
+		try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.min(in.size(), Integer.MAX_VALUE));
+			while (buf.hasRemaining() && in.read(buf) != -1) {
+				// read fully
+			}
+			buf.flip();
+			if (buf.remaining() < HEADER_SIZE || buf.getInt() != MAGIC
+					|| buf.getLong() != database.length() || buf.getLong() != database.lastModified()) {
+				Log.warn("Journal " + file.getAbsolutePath() + " does not belong to the current database. Discarding it.");
+				clear();
+				return replayed;
+			}
+
+			// an incomplete trailing record stems from an interrupted write and is ignored
+			while (buf.remaining() >= RECORD_SIZE) {
+				int index = buf.getInt();
+				long lastAsked = buf.getLong();
+				int asked = buf.getInt();
+				int failed = buf.getInt();
+				int succeeded_in_a_row = buf.getInt();
+				if (index < 0 || index >= vocs.size()) {
+					Log.warn("Journal refers to unknown voc " + index + ". Skipped.");
+					continue;
+				}
+				vocs.setStats(index, lastAsked, asked, failed, succeeded_in_a_row);
+				replayed.set(index);
+			}
+			return replayed;
+		}
+		catch (IOException e) {
+			Log.warn("Reading journal " + file.getAbsolutePath() + " failed. Changes since the last write are lost.");
+			Log.warn(e.toString());
+			return replayed;
+		}
+	}
+
+	/**
+	 * @return a record of the current stats of the given voc to be {@link #append appended}
+	 */
+	static byte[] record(Vocabulary voc) {
+		return ByteBuffer.allocate(RECORD_SIZE)
+				.putInt(voc.getIndex())
+				.putLong(voc.getLastAsked())
+				.putInt(voc.getAsked())
+				.putInt(voc.getFailed())
+				.putInt(voc.getSucceeded_in_a_row())
+				.array();
+	}
+
+	/**
+	 * Appends the given {@link #record records}.
+	 *
+	 * @param records  the records to be appended
+	 * @param database the database the journal belongs to, used to stamp a new journal
+	 */
+	void append(ByteBuffer records, File database) throws IOException {
+		if (channel == null) {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+			size = channel.size();
+			if (size < HEADER_SIZE) {
+				channel.truncate(0);
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putLong(database.length()).putLong(database.lastModified()).flip();
+				writeFully(header);
+				size = HEADER_SIZE;
+			}
+		}
+
+		size += records.remaining();
+		writeFully(records);
+	}
+
+	private void writeFully(ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	/**
+	 * @return the file the journal is stored in
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return size of the journal in bytes
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Removes the journal, e.g. after its records have been folded into the database.
+	 */
+	void clear() {
+		try {
+			if (channel != null) {
+				channel.close();
+				channel = null;
+			}
+		}
+		catch (IOException e) {
+			Log.warn(e.toString());
+		}
+		if (file.exists() && !file.delete()) {
+			Log.warn("Deleting journal " + file.getAbsolutePath() + " failed.");
+		}
+		size = 0;
+	}
+}
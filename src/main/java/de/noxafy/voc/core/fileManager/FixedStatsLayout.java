@@ -0,0 +1,146 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.voc.core.model.Vocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the mutable stats columns (lastAsked, asked, failed, succeeded_in_a_row) at the end of each database line.
+ * The stats are zero-padded to a fixed width, so they can be overwritten in place without moving the rest of the file:
+ * <pre>"word","meaning","mnemonic","added","1540000000000","00012","00003","005"</pre>
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class FixedStatsLayout {
+
+	private static final int LAST_ASKED_WIDTH = 13;
+	private static final int ASKED_WIDTH = 5;
+	private static final int FAILED_WIDTH = 5;
+	private static final int SUCCEEDED_IN_A_ROW_WIDTH = 3;
+
+	// 'D' stands for a digit
+	private static final String TEMPLATE = "\"" + digits(LAST_ASKED_WIDTH) + "\",\"" + digits(ASKED_WIDTH) + "\",\""
+			+ digits(FAILED_WIDTH) + "\",\"" + digits(SUCCEEDED_IN_A_ROW_WIDTH) + "\"";
+
+	/**
+	 * Length of the stats in bytes (and chars), including quotes and separating commas.
+	 */
+	static final int LENGTH = TEMPLATE.length();
+
+	private FixedStatsLayout() {
+	}
+
+	private static String digits(int width) {
+		StringBuilder sb = new StringBuilder(width);
+		for (int i = 0; i < width; i++) {
+			sb.append('D');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return whether the given line ends with stats in fixed layout
+	 */
+	static boolean isFixed(CharSequence line) {
+		int start = line.length() - LENGTH;
+		if (start < 0) return false;
+		for (int i = 0; i < LENGTH; i++) {
+			char expected = TEMPLATE.charAt(i);
+			char c = line.charAt(start + i);
+			if (expected == 'D' ? c < '0' || c > '9' : c != expected) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the given UTF-8 line from <code>from</code> to <code>to</code> (exclusive) ends with stats in
+	 * fixed layout
+	 */
+	static boolean isFixed(ByteBuffer line, int from, int to) {
+		int start = to - LENGTH;
+		if (start < from) return false;
+		for (int i = 0; i < LENGTH; i++) {
+			char expected = TEMPLATE.charAt(i);
+			byte c = line.get(start + i);
+			if (expected == 'D' ? c < '0' || c > '9' : c != expected) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the stats of the given voc can be written in fixed layout
+	 */
+	static boolean fits(Vocabulary voc) {
+		return fits(voc.getLastAsked(), LAST_ASKED_WIDTH) && fits(voc.getAsked(), ASKED_WIDTH)
+				&& fits(voc.getFailed(), FAILED_WIDTH) && fits(voc.getSucceeded_in_a_row(), SUCCEEDED_IN_A_ROW_WIDTH);
+	}
+
+	private static boolean fits(long value, int width) {
+		return value >= 0 && Long.toString(value).length() <= width;
+	}
+
+	/**
+	 * Appends the quoted stats of the given voc, zero-padded if they {@link #fits fit}.
+	 */
+	static StringBuilder appendStats(StringBuilder sb, Vocabulary voc) {
+		return appendStats(sb, voc.getLastAsked(), voc.getAsked(), voc.getFailed(), voc.getSucceeded_in_a_row());
+	}
+
+	/**
+	 * Appends the given quoted stats, zero-padded if they {@link #fits fit}.
+	 */
+	public static StringBuilder appendStats(StringBuilder sb, long lastAsked, int asked, int failed,
+			int succeeded_in_a_row) {
+		sb.append('"');
+		appendPadded(sb, lastAsked, LAST_ASKED_WIDTH).append("\",\"");
+		appendPadded(sb, asked, ASKED_WIDTH).append("\",\"");
+		appendPadded(sb, failed, FAILED_WIDTH).append("\",\"");
+		appendPadded(sb, succeeded_in_a_row, SUCCEEDED_IN_A_ROW_WIDTH);
+		return sb.append('"');
+	}
+
+	/**
+	 * @return the stats of the given voc in fixed layout as bytes
+	 */
+	static byte[] getStatsBytes(Vocabulary voc) {
+		return appendStats(new StringBuilder(LENGTH), voc).toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static StringBuilder appendPadded(StringBuilder sb, long value, int width) {
+		String digits = Long.toString(value);
+		for (int i = digits.length(); i < width; i++) {
+			sb.append('0');
+		}
+		return sb.append(digits);
+	}
+
+	/**
+	 * @return the number of bytes the given chars take in UTF-8
+	 */
+	static int utf8Length(CharSequence chars) {
+		int length = 0;
+		for (int i = 0; i < chars.length(); i++) {
+			char c = chars.charAt(i);
+			if (c < 0x80) {
+				length++;
+			}
+			else if (c < 0x800) {
+				length += 2;
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(i + 1))) {
+				length += 4;
+				i++;
+			}
+			else if (Character.isSurrogate(c)) {
+				// unpaired surrogates are replaced by '?'
+				length++;
+			}
+			else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+}
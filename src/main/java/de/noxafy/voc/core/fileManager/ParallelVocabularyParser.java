@@ -0,0 +1,70 @@
+package de.noxafy.voc.core.fileManager;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a vocabulary database in memory on all cores. The content is split at newline boundaries into chunks, which
+ * are parsed on the common {@link ForkJoinPool} and merged in their original order.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class ParallelVocabularyParser {
+
+	// content smaller than this is parsed by one thread
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	private ParallelVocabularyParser() {
+	}
+
+	/**
+	 * Parses all lines of the given content. Byte offsets are relative to index 0 of the buffer.
+	 *
+	 * @return the collected vocs in the order of the content
+	 */
+	static VocabularyCollector parse(ByteBuffer content) {
+		return ForkJoinPool.commonPool().invoke(new ChunkTask(content, content.position(), content.limit()));
+	}
+
+	private static final class ChunkTask extends RecursiveTask<VocabularyCollector> {
+		private static final long serialVersionUID = 1L;
+
+		private final ByteBuffer content;
+		private final int from;
+		private final int to;
+
+		ChunkTask(ByteBuffer content, int from, int to) {
+			this.content = content;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected VocabularyCollector compute() {
+			int split = to - from > CHUNK_SIZE ? nextLineStart(from + (to - from) / 2) : to;
+			if (split >= to) {
+				ByteBuffer chunk = content.duplicate();
+				chunk.limit(to).position(from);
+				VocabularyCollector collector = new VocabularyCollector(to - from);
+				new VocabularyCsvParser(collector.getStore(), collector).parse(chunk);
+				return collector;
+			}
+
+			ChunkTask first = new ChunkTask(content, from, split);
+			first.fork();
+			VocabularyCollector second = new ChunkTask(content, split, to).compute();
+			VocabularyCollector collector = first.join();
+			collector.append(second);
+			return collector;
+		}
+
+		private int nextLineStart(int i) {
+			while (i < to && content.get(i) != '\n') {
+				i++;
+			}
+			return i + 1;
+		}
+	}
+}
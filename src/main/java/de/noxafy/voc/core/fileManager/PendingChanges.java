@@ -0,0 +1,137 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.voc.core.model.Vocabulary;
+import de.noxafy.voc.core.model.VocabularyStore;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes of a vocabulary database waiting to be written. Changes submitted later are coalesced into the pending ones:
+ * The stats of a voc supersede its stats submitted before, a fold supersedes all journal records submitted before it
+ * once it is written.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class PendingChanges {
+
+	// vocs as loaded from the database or null if not loaded since
+	private VocabularyStore database;
+	private long[] statsOffsets;
+	// whether a snapshot of the loaded vocs has to be written
+	private boolean snapshot = false;
+	// stats of changed vocs to be written, by database index
+	private final Map<Integer, Patch> patches = new TreeMap<>();
+	// whether the journal is obsolete after the patches are written
+	private boolean fold = false;
+	// whether snapshot and statistics sidecar are to be brought up to date after the fold
+	private boolean finish = false;
+	// statistics sidecar of the loaded database and its journal
+	private ByteBuffer statistics;
+	// journal records, the first of them up to recordsFolded are contained in the fold
+	private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+	private int recordsFolded = 0;
+
+	/**
+	 * Sets the vocs just loaded, to be written from now on.
+	 *
+	 * @param database     the vocs as stored in the database, not changed afterwards
+	 * @param statsOffsets byte offsets of their fixed layout stats
+	 * @param snapshot     whether a snapshot of the vocs has to be written
+	 */
+	void setDatabase(VocabularyStore database, long[] statsOffsets, boolean snapshot) {
+		this.database = database;
+		this.statsOffsets = statsOffsets;
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Adds a journal record.
+	 */
+	void addRecord(byte[] record) {
+		records.write(record, 0, record.length);
+	}
+
+	/**
+	 * Adds a fold of all changes so far into the database.
+	 *
+	 * @param patches the stats of the vocs changed since the last fold
+	 * @param finish  whether snapshot and statistics sidecar are to be brought up to date after the fold
+	 */
+	void addFold(Map<Integer, Patch> patches, boolean finish) {
+		this.patches.putAll(patches);
+		this.fold = true;
+		this.finish |= finish;
+		this.recordsFolded = records.size();
+	}
+
+	/**
+	 * Sets the statistics sidecar of the current state of the database and its journal.
+	 */
+	void setStatistics(ByteBuffer statistics) {
+		this.statistics = statistics;
+	}
+
+	@Nullable
+	VocabularyStore getDatabase() {
+		return database;
+	}
+
+	long[] getStatsOffsets() {
+		return statsOffsets;
+	}
+
+	boolean hasSnapshot() {
+		return snapshot;
+	}
+
+	Map<Integer, Patch> getPatches() {
+		return patches;
+	}
+
+	boolean isFold() {
+		return fold;
+	}
+
+	boolean isFinish() {
+		return finish;
+	}
+
+	@Nullable
+	ByteBuffer getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @param folded whether the fold has been written, so the records contained in it are obsolete
+	 * @return the records to be appended to the journal
+	 */
+	ByteBuffer getRecords(boolean folded) {
+		byte[] bytes = records.toByteArray();
+		int from = folded ? recordsFolded : 0;
+		return ByteBuffer.wrap(bytes, from, bytes.length - from);
+	}
+
+	/**
+	 * Stats of a voc to be written.
+	 */
+	static final class Patch {
+		final int index;
+		final long lastAsked;
+		final int asked;
+		final int failed;
+		final int succeeded_in_a_row;
+
+		Patch(Vocabulary voc) {
+			this.index = voc.getIndex();
+			this.lastAsked = voc.getLastAsked();
+			this.asked = voc.getAsked();
+			this.failed = voc.getFailed();
+			this.succeeded_in_a_row = voc.getSucceeded_in_a_row();
+		}
+	}
+}
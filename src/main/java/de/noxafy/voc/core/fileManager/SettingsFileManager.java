@@ -21,8 +21,10 @@ public final class SettingsFileManager extends FileManager<Settings> {
 
 	private static final String str_NUMBER_NEW_VOCS = "NUMBER_NEW_VOCS";
 	private static final String str_NUMBER_SIMUL_VOCS = "NUMBER_SIMUL_VOCS";
+	private static final String str_NEW_VOCS_NEWEST_FIRST = "NEW_VOCS_NEWEST_FIRST";
 	private static final int NUMBER_SIMUL_VOCS_DEFAULT = 20;
 	private static final int NUMBER_NEW_VOCS_DEFAULT = 4;
+	private static final boolean NEW_VOCS_NEWEST_FIRST_DEFAULT = false;
 	private static SettingsFileManager singleton;
 
 	private SettingsFileManager(File file) {
@@ -50,6 +52,7 @@ public final class SettingsFileManager extends FileManager<Settings> {
 
 		int NUMBER_SIMUL_VOCS = NUMBER_SIMUL_VOCS_DEFAULT;
 		int NUMBER_NEW_VOCS = NUMBER_NEW_VOCS_DEFAULT;
+		boolean NEW_VOCS_NEWEST_FIRST = NEW_VOCS_NEWEST_FIRST_DEFAULT;
 		boolean error = false;
 		if (jsonContent == null || jsonContent.isEmpty()) {
 			Log.warn("No settings file found. It will be created at " + getFile().getAbsolutePath() + " now.");
@@ -73,9 +76,20 @@ public final class SettingsFileManager extends FileManager<Settings> {
 				Log.warn(str_NUMBER_NEW_VOCS + " was missing.");
 				error = true;
 			}
+
+			// added later, so settings written before silently keep the former behaviour
+			if (obj.containsKey(str_NEW_VOCS_NEWEST_FIRST)) {
+				try {
+					NEW_VOCS_NEWEST_FIRST = obj.getBoolean(str_NEW_VOCS_NEWEST_FIRST);
+				}
+				catch (ClassCastException e) {
+					Log.warn(str_NEW_VOCS_NEWEST_FIRST + " was no boolean.");
+					error = true;
+				}
+			}
 		}
 
-		Settings settings = new Settings(NUMBER_SIMUL_VOCS, NUMBER_NEW_VOCS);
+		Settings settings = new Settings(NUMBER_SIMUL_VOCS, NUMBER_NEW_VOCS, NEW_VOCS_NEWEST_FIRST);
 		if (error) this.write(settings); // to ensure sync
 		return settings;
 	}
@@ -86,6 +100,7 @@ public final class SettingsFileManager extends FileManager<Settings> {
 		JsonObjectBuilder obj = Json.createObjectBuilder();
 		obj.add(str_NUMBER_SIMUL_VOCS, settings.NUMBER_SIMUL_VOCS);
 		obj.add(str_NUMBER_NEW_VOCS, settings.NUMBER_NEW_VOCS);
+		obj.add(str_NEW_VOCS_NEWEST_FIRST, settings.NEW_VOCS_NEWEST_FIRST);
 		Log.verbose("Write settings to: %s", getFile().getAbsolutePath());
 		return obj.build().toString();
 	}
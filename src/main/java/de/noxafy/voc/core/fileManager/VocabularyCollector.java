@@ -0,0 +1,107 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.Log;
+import de.noxafy.voc.core.model.VocabularyStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects parsed vocs in database order together with their stats offsets. Lines failed to parse are kept to be
+ * reported after parsing, so collectors of consecutive parts of a file can be merged with correct line numbers.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class VocabularyCollector implements VocabularyCsvParser.Sink {
+
+	// rough guess to avoid most of the resizing
+	private static final int AVERAGE_LINE_LENGTH = 64;
+	// texts are smaller than the content, so do not reserve too much up front for huge files
+	private static final int MAX_INITIAL_TEXT_CAPACITY = 1 << 26;
+
+	private final VocabularyStore store;
+	private long[] statsOffsets;
+	private final List<Rejected> rejected = new ArrayList<>(0);
+
+	VocabularyCollector(long contentLength) {
+		int expected = (int) Math.min(contentLength / AVERAGE_LINE_LENGTH + 1, Integer.MAX_VALUE - 8);
+		store = new VocabularyStore(expected, (int) Math.min(contentLength, MAX_INITIAL_TEXT_CAPACITY));
+		statsOffsets = new long[expected];
+	}
+
+	@Override
+	public void accept(int index, long statsOffset) {
+		ensureCapacity(index + 1);
+		statsOffsets[index] = statsOffset;
+	}
+
+	@Override
+	public void reject(int lineNumber, String line, Exception e) {
+		rejected.add(new Rejected(lineNumber, line, e));
+	}
+
+	/**
+	 * Appends all vocs of the given collector, which has to contain the lines directly following the lines of this.
+	 */
+	void append(VocabularyCollector next) {
+		int lines = store.size() + rejected.size();
+		int size = store.size();
+		ensureCapacity(size + next.store.size());
+		System.arraycopy(next.statsOffsets, 0, statsOffsets, size, next.store.size());
+		store.addAll(next.store);
+		for (Rejected r : next.rejected) {
+			rejected.add(new Rejected(lines + r.lineNumber, r.line, r.e));
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > statsOffsets.length) {
+			statsOffsets = Arrays.copyOf(statsOffsets, Math.max(capacity, statsOffsets.length + (statsOffsets.length >> 1) + 1));
+		}
+	}
+
+	/**
+	 * Logs all lines failed to parse. Empty lines at the end of the file are skipped, as String#split drops them.
+	 */
+	void reportRejected() {
+		int lines = store.size() + rejected.size();
+		int reported = rejected.size();
+		while (reported > 0 && rejected.get(reported - 1).lineNumber == lines
+				&& rejected.get(reported - 1).line.isEmpty()) {
+			reported--;
+			lines--;
+		}
+		for (Rejected r : rejected.subList(0, reported)) {
+			Log.warn("Failed to parse line " + r.lineNumber + ": " + r.line);
+			Log.warn(r.e.toString());
+		}
+	}
+
+	/**
+	 * @return the store parsed vocs are added to
+	 */
+	VocabularyStore getStore() {
+		return store;
+	}
+
+	/**
+	 * @return byte offsets of the stats of the vocs, might be longer than the number of vocs
+	 */
+	long[] getStatsOffsets() {
+		return statsOffsets;
+	}
+
+	private static final class Rejected {
+		private final int lineNumber;
+		private final String line;
+		private final Exception e;
+
+		Rejected(int lineNumber, String line, Exception e) {
+			this.lineNumber = lineNumber;
+			this.line = line;
+			this.e = e;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.TooShortLineException;
+import de.noxafy.voc.core.model.VocabularyStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass parser for vocabulary databases. Lines are tokenized directly on the UTF-8 bytes (quotes, separators and
+ * newlines are ASCII, so they never occur inside multi-byte sequences), numbers are parsed from the bytes and the text
+ * fields are copied into the {@link VocabularyStore} without decoding. The {@link Sink} is notified of each line as soon
+ * as it is parsed.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class VocabularyCsvParser {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int FIELDS = 8;
+
+	interface Sink {
+		/**
+		 * @param index       index of the parsed voc in the store
+		 * @param statsOffset byte offset of the stats in {@link FixedStatsLayout fixed layout} or -1
+		 */
+		void accept(int index, long statsOffset);
+
+		/**
+		 * @param lineNumber number of the line counted from the first line given to the parser, starting at 1
+		 * @param line       the line failed to parse
+		 * @param e          the reason
+		 */
+		void reject(int lineNumber, String line, Exception e);
+	}
+
+	private final VocabularyStore store;
+	private final Sink sink;
+	// start and end (exclusive) of each field of the current line
+	private final int[] fieldStarts = new int[FIELDS];
+	private final int[] fieldEnds = new int[FIELDS];
+	private byte[] scratch = new byte[256];
+	private int lineNumber;
+
+	/**
+	 * @param store the store parsed vocs are added to
+	 * @param sink  notified of each line parsed
+	 */
+	VocabularyCsvParser(VocabularyStore store, Sink sink) {
+		this.store = store;
+		this.sink = sink;
+	}
+
+	/**
+	 * Parses all lines read from the given channel.
+	 *
+	 * @return number of lines read
+	 */
+	int parse(ReadableByteChannel in) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		// file offset of buf[0]
+		long bufferOffset = 0;
+		boolean eof = false;
+		while (!eof) {
+			eof = in.read(buf) == -1;
+			buf.flip();
+			int lineStart = 0;
+			int limit = buf.limit();
+			for (int i = 0; i < limit; i++) {
+				if (buf.get(i) == '\n') {
+					parseLine(buf, lineStart, i, bufferOffset + lineStart);
+					lineStart = i + 1;
+				}
+			}
+			if (eof) {
+				if (lineStart < limit) {
+					parseLine(buf, lineStart, limit, bufferOffset + lineStart);
+				}
+				break;
+			}
+			// keep incomplete line
+			buf.position(lineStart);
+			buf.compact();
+			bufferOffset += lineStart;
+			if (!buf.hasRemaining()) {
+				// line does not fit into buffer
+				ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+				buf.flip();
+				bigger.put(buf);
+				buf = bigger;
+			}
+		}
+		return lineNumber;
+	}
+
+	/**
+	 * Parses all lines in the remaining bytes of the given buffer. Byte offsets are relative to index 0 of the buffer.
+	 *
+	 * @return number of lines read
+	 */
+	int parse(ByteBuffer buf) {
+		int lineStart = buf.position();
+		int limit = buf.limit();
+		for (int i = lineStart; i < limit; i++) {
+			if (buf.get(i) == '\n') {
+				parseLine(buf, lineStart, i, lineStart);
+				lineStart = i + 1;
+			}
+		}
+		if (lineStart < limit) {
+			parseLine(buf, lineStart, limit, lineStart);
+		}
+		return lineNumber;
+	}
+
+	private void parseLine(ByteBuffer buf, int from, int to, long fileOffset) {
+		lineNumber++;
+		try {
+			int index = addVocabulary(buf, from, to);
+			long statsOffset = FixedStatsLayout.isFixed(buf, from, to) ? fileOffset + (to - from) - FixedStatsLayout.LENGTH : -1;
+			sink.accept(index, statsOffset);
+		}
+		catch (Exception e) {
+			sink.reject(lineNumber, decode(buf, from, to), e);
+		}
+	}
+
+	private int addVocabulary(ByteBuffer buf, int from, int to) {
+		// cut start and end "
+		int start = from + 1;
+		int end = to - 1;
+		if (end < start) {
+			throw new TooShortLineException(decode(buf, from, to));
+		}
+
+		// split at ","
+		int fields = 0;
+		fieldStarts[0] = start;
+		for (int i = start; i + 2 < end && fields < FIELDS - 1; i++) {
+			if (buf.get(i) == '"' && buf.get(i + 1) == ',' && buf.get(i + 2) == '"') {
+				fieldEnds[fields++] = i;
+				fieldStarts[fields] = i + 3;
+				i += 2;
+			}
+		}
+		fieldEnds[fields++] = end;
+		if (fields < FIELDS) {
+			throw new TooShortLineException(decode(buf, from, to));
+		}
+		// stop at further separators like String#split would
+		int last = FIELDS - 1;
+		for (int i = fieldStarts[last]; i + 2 < end; i++) {
+			if (buf.get(i) == '"' && buf.get(i + 1) == ',' && buf.get(i + 2) == '"') {
+				fieldEnds[last] = i;
+				break;
+			}
+		}
+
+		long added = parseLong(buf, fieldStarts[3], fieldEnds[3]);
+		long lastAsked = 0;
+		if (fieldStarts[4] != fieldEnds[4]) {
+			lastAsked = parseLong(buf, fieldStarts[4], fieldEnds[4]);
+		}
+		int asked = parseInt(buf, fieldStarts[5], fieldEnds[5]);
+		int failed = parseInt(buf, fieldStarts[6], fieldEnds[6]);
+		int succeeded_in_a_row = parseInt(buf, fieldStarts[7], fieldEnds[7]);
+		return store.add(buf, fieldStarts[0], fieldEnds[0], fieldStarts[1], fieldEnds[1], fieldStarts[2], fieldEnds[2],
+				added, lastAsked, asked, failed, succeeded_in_a_row);
+	}
+
+	private String decode(ByteBuffer buf, int from, int to) {
+		int length = to - from;
+		if (length <= 0) return "";
+		if (buf.hasArray()) {
+			return new String(buf.array(), buf.arrayOffset() + from, length, StandardCharsets.UTF_8);
+		}
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			scratch[i] = buf.get(from + i);
+		}
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	private int parseInt(ByteBuffer buf, int from, int to) {
+		long value = parseLong(buf, from, to);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("For input string: \"" + decode(buf, from, to) + "\"");
+		}
+		return (int) value;
+	}
+
+	private long parseLong(ByteBuffer buf, int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+			negative = buf.get(i) == '-';
+			i++;
+		}
+		if (i == to || to - i > 18) {
+			// empty or possibly out of range, let Long handle it
+			return Long.parseLong(decode(buf, from, to));
+		}
+		long value = 0;
+		for (; i < to; i++) {
+			int digit = buf.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("For input string: \"" + decode(buf, from, to) + "\"");
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+}
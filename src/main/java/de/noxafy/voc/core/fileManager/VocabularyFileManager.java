@@ -1,15 +1,25 @@
 package de.noxafy.voc.core.fileManager;
 
 import de.noxafy.utils.data.FileManager;
-import de.noxafy.utils.TooShortLineException;
 import de.noxafy.utils.Log;
+import de.noxafy.utils.metrics.Counter;
+import de.noxafy.utils.metrics.Histogram;
+import de.noxafy.utils.metrics.Metrics;
 import de.noxafy.voc.core.model.VocabularyBase;
 import de.noxafy.voc.core.model.Vocabulary;
+import de.noxafy.voc.core.model.VocabularyStatistics;
+import de.noxafy.voc.core.model.VocabularyStore;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,84 +31,416 @@ import java.util.Map;
 public final class VocabularyFileManager extends FileManager<VocabularyBase> {
 
 	private static final Map<String, VocabularyFileManager> singletons = new HashMap<>();
+	// fold journal into database when it gets bigger than this (in bytes)
+	private static final long JOURNAL_FOLD_THRESHOLD = 1 << 20;
+
+	private static final long MAX_JOURNALED_ANSWERS = JOURNAL_FOLD_THRESHOLD / AnswerJournal.RECORD_SIZE;
+
+	private static final Histogram snapshotLoadTime = Metrics.histogram("deck.snapshot.load");
+	private static final Histogram statisticsLoadTime = Metrics.histogram("deck.statistics.load");
+	private static final Histogram parseTime = Metrics.histogram("deck.parse");
+	private static final Histogram writeTime = Metrics.histogram("deck.write");
+	private static final Histogram journalAppendTime = Metrics.histogram("journal.append");
+	private static final Counter completeWrites = Metrics.counter("deck.write.complete");
+	private static final Counter patchedVocs = Metrics.counter("deck.write.patched");
+
+	private final AnswerJournal journal;
+	private final VocabularySnapshotManager snapshot;
+	private final VocabularyStatisticsSidecar statistics;
+
+	// owned by the calling thread
+	private long journaledAnswers = 0;
+
+	// owned by the writing thread:
+	// the vocs as in the database once all folds submitted so far are written
+	private VocabularyStore written = new VocabularyStore();
+	// byte offset of the fixed layout stats of each voc or -1 if not in fixed layout
+	private long[] statsOffsets = new long[0];
+	// whether the database lags behind the written vocs, because a fold failed
+	private boolean databaseBehind = false;
+
+	// guarded by this
+	// state of the file after the last load or write, set by the loading and the writing thread
+	private long knownLength = -1;
+	private long knownModified = -1;
+	private PendingChanges pending = new PendingChanges();
+	// set by the writing thread, if answers could neither be journaled nor folded
+	private volatile boolean needsFold = false;
 
 	private VocabularyFileManager(File file) {
-		super(file);
+		super(file, true);
+		setWriteBehind(true);
+		journal = new AnswerJournal(file);
+		snapshot = new VocabularySnapshotManager(file);
+		statistics = new VocabularyStatisticsSidecar(file, journal.getFile());
 	}
 
 	public static VocabularyFileManager getInstance(String settings_path) {
 		return singletons.computeIfAbsent(settings_path, path -> new VocabularyFileManager(new File(path)));
 	}
 
+	/**
+	 * Loads the vocabulary base from its binary snapshot, if the snapshot is up to date. Otherwise the mapped file is
+	 * parsed in parallel with {@link ParallelVocabularyParser} and a new snapshot is written. Files too big to be mapped are streamed
+	 * through the parser, so the content is never copied to the heap as a whole.
+	 *
+	 * @return the vocabulary base or an empty one if the file is absent or not readable
+	 */
+	@NotNull
+	@Override
+	public VocabularyBase load() {
+		if (snapshot.isFresh()) {
+			Log.verbose("Loading vocabulary base from snapshot of: %s", getFile().getAbsolutePath());
+			long start = System.nanoTime();
+			VocabularyStore vocs = snapshot.loadVocs();
+			snapshotLoadTime.recordSince(start);
+			if (vocs != null) {
+				return toBase(vocs, snapshot.getStatsOffsets(), false);
+			}
+		}
+		Log.verbose("Loading vocabulary base from: %s", getFile().getAbsolutePath());
+		if (getFile().length() <= Integer.MAX_VALUE) {
+			ByteBuffer content = readMapped();
+			if (content == null) {
+				return new VocabularyBase(new VocabularyStore());
+			}
+			long start = System.nanoTime();
+			VocabularyCollector collector = ParallelVocabularyParser.parse(content);
+			parseTime.recordSince(start);
+			return toBase(collector);
+		}
+		VocabularyCollector collector = new VocabularyCollector(getFile().length());
+		long start = System.nanoTime();
+		try (FileChannel in = FileChannel.open(getFile().toPath(), StandardOpenOption.READ)) {
+			new VocabularyCsvParser(collector.getStore(), collector).parse(in);
+			parseTime.recordSince(start);
+		}
+		catch (IOException e) {
+			Log.error("Reading from file " + getFile().getAbsolutePath() + " failed.");
+			Log.error(e.toString());
+			return new VocabularyBase(new VocabularyStore());
+		}
+		return toBase(collector);
+	}
+
+	/**
+	 * Loads the statistics of the vocabulary base from its sidecar, if the sidecar is up to date. Otherwise the
+	 * vocabulary base is {@link #load() loaded} and the sidecar is written anew.
+	 *
+	 * @return the statistics as of now
+	 */
+	@NotNull
+	public VocabularyStatistics loadStatistics() {
+		long now = System.currentTimeMillis();
+		long start = System.nanoTime();
+		VocabularyStatistics stats = statistics.load(now);
+		if (stats != null) {
+			statisticsLoadTime.recordSince(start);
+			Log.verbose("Loaded statistics of vocabulary base from sidecar of: %s", getFile().getAbsolutePath());
+			return stats;
+		}
+		VocabularyBase base = load();
+		base.generateTodo();
+		return base.getStatistics();
+	}
+
 	@NotNull
 	@Override
 	protected VocabularyBase onLoad(@Nullable String content) {
 		Log.verbose("Loading vocabulary base from: %s", getFile().getAbsolutePath());
 		if (content == null) {
-			return new VocabularyBase(new ArrayList<>());
+			return new VocabularyBase(new VocabularyStore());
 		}
 
-		String[] lines = content.split("\n");
-		ArrayList<Vocabulary> vocs = new ArrayList<>(lines.length);
-		for (int i = 0; i < lines.length; i++) {
-			String line = lines[i];
-			try {
-				vocs.add(getVocabulary(line));
-			}
-			catch (Exception e) {
-				Log.warn("Failed to parse line " + (i + 1) + ": " + line);
-				Log.warn(e.toString());
-			}
-		}
-		return new VocabularyBase(vocs);
+		long start = System.nanoTime();
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		VocabularyCollector collector = new VocabularyCollector(bytes.length);
+		new VocabularyCsvParser(collector.getStore(), collector).parse(ByteBuffer.wrap(bytes));
+		parseTime.recordSince(start);
+		return toBase(collector);
 	}
 
-	private Vocabulary getVocabulary(String org_line) {
-		// cut start and end "
-		String line = org_line.substring(1, org_line.length() - 1);
+	private VocabularyBase toBase(VocabularyCollector collector) {
+		collector.reportRejected();
+		return toBase(collector.getStore(), collector.getStatsOffsets(), true);
+	}
 
-		String[] args = line.split("\",\"");
-		if (args.length < 8) {
-			throw new TooShortLineException(org_line);
+	/**
+	 * Creates the vocabulary base from the vocs in the file after applying the journal.
+	 *
+	 * @param vocs         vocs as stored in file
+	 * @param statsOffsets byte offsets of their fixed layout stats
+	 * @param takeSnapshot whether the snapshot should be updated
+	 */
+	private VocabularyBase toBase(VocabularyStore vocs, long[] statsOffsets, boolean takeSnapshot) {
+		rememberFileState();
+		synchronized (this) {
+			pending.setDatabase(vocs.copy(), statsOffsets, takeSnapshot);
 		}
-		String word = args[0];
-		String meaning = args[1];
-		String mnemonic = args[2];
-		long added = Long.parseLong(args[3]);
-		long lastAsked = 0;
-		if (!args[4].isEmpty()) {
-			lastAsked = Long.parseLong(args[4]);
+		persist(this::writeChanges);
+
+		BitSet replayed = journal.replay(vocs, getFile());
+		long now = System.currentTimeMillis();
+		if (takeSnapshot || !statistics.isFresh(now)) {
+			ByteBuffer stats = statistics.capture(vocs, now);
+			synchronized (this) {
+				pending.setStatistics(stats);
+			}
+			persist(this::writeChanges);
 		}
-		int asked = Integer.parseInt(args[5]);
-		int failed = Integer.parseInt(args[6]);
-		int succeeded_in_a_row = Integer.parseInt(args[7]);
-		return new Vocabulary(word, meaning, mnemonic, added, lastAsked, asked, failed, succeeded_in_a_row);
+		VocabularyBase base = new VocabularyBase(vocs);
+		if (!replayed.isEmpty()) {
+			Log.verbose("Replayed answers for %d vocs from journal", replayed.cardinality());
+			replayed.stream().forEach(base::markDirty);
+		}
+		return base;
 	}
 
 	@NotNull
 	@Override
 	protected String onWrite(@NotNull VocabularyBase base) {
-		List<Vocabulary> vocs = base.getAllVocs();
+		return toCsv(base.getAllVocs(), new long[base.size()]);
+	}
+
+	/**
+	 * @param vocs         vocs in database order
+	 * @param statsOffsets filled with the byte offsets of the stats of the vocs or -1 if not in fixed layout
+	 * @return the content of the database
+	 */
+	private String toCsv(List<Vocabulary> vocs, long[] statsOffsets) {
 		StringBuilder csv = new StringBuilder();
-		// TODO: save a map of strings (voc as key) and replace only the changed key (= last_asked?)
-		for (Vocabulary voc : vocs) {
-			csv.append(getLine(voc)).append("\n");
+		long lineStart = 0;
+		for (int i = 0; i < vocs.size(); i++) {
+			Vocabulary voc = vocs.get(i);
+			StringBuilder line = getLine(voc);
+			long lineEnd = lineStart + FixedStatsLayout.utf8Length(line);
+			statsOffsets[i] = FixedStatsLayout.fits(voc) ? lineEnd - FixedStatsLayout.LENGTH : -1;
+			csv.append(line).append("\n");
+			lineStart = lineEnd + 1;
 		}
-		Log.verbose("Write vocabulary base to: %s", getFile().getAbsolutePath());
 		return csv.toString();
 	}
 
+	/**
+	 * Writes the changes of the given database in background, once a session is finished. If possible, only the stats
+	 * of {@link VocabularyBase#getDirtyVocs() changed vocs} are overwritten in place, otherwise the whole database is
+	 * written. The snapshot and the statistics sidecar are brought up to date afterwards. The changed stats are
+	 * captured before returning, so the database may be changed right after.
+	 *
+	 * @param base The database to be saved in file
+	 */
+	@Override
+	public void write(@NotNull VocabularyBase base) {
+		fold(base, true);
+	}
+
+	/**
+	 * Submits a fold of the changes of the given database and the journal into the database.
+	 *
+	 * @param finish whether the snapshot and the statistics sidecar should be brought up to date, otherwise only the
+	 *               stats columns of an up to date snapshot are patched
+	 */
+	private void fold(VocabularyBase base, boolean finish) {
+		List<Vocabulary> dirtyVocs = base.getDirtyVocs();
+		if (dirtyVocs.isEmpty() && !needsFold && !finish) return;
+
+		Map<Integer, PendingChanges.Patch> patches = new HashMap<>();
+		for (Vocabulary voc : dirtyVocs) {
+			patches.put(voc.getIndex(), new PendingChanges.Patch(voc));
+		}
+		base.clearDirty();
+		journaledAnswers = 0;
+		needsFold = false;
+
+		synchronized (this) {
+			pending.addFold(patches, finish);
+		}
+		persist(this::writeChanges);
+	}
+
+	/**
+	 * Records the changed stats of the given voc in the journal, so only a constant amount of data is written per
+	 * answer. The journal is folded into the database, if it exceeds {@link #JOURNAL_FOLD_THRESHOLD} or could not be
+	 * written.
+	 *
+	 * @param base the database the voc belongs to
+	 * @param voc  the voc just answered
+	 */
+	public void writeAnswer(@NotNull VocabularyBase base, @NotNull Vocabulary voc) {
+		synchronized (this) {
+			pending.addRecord(AnswerJournal.record(voc));
+		}
+		persist(this::writeChanges);
+		if (++journaledAnswers > MAX_JOURNALED_ANSWERS || needsFold) {
+			Log.verbose("Folding journal into vocabulary base.");
+			fold(base, false);
+		}
+	}
+
+	/**
+	 * Writes all pending changes. Executed by the writing thread.
+	 */
+	private void writeChanges() {
+		long start = System.nanoTime();
+		PendingChanges changes;
+		synchronized (this) {
+			changes = pending;
+			pending = new PendingChanges();
+		}
+
+		if (changes.getDatabase() != null) {
+			written = changes.getDatabase();
+			statsOffsets = changes.getStatsOffsets();
+			databaseBehind = false;
+			if (changes.hasSnapshot()) {
+				writeSnapshot();
+			}
+		}
+		boolean folded = changes.isFold() && writeFold(changes.getPatches().values());
+		if (folded) {
+			// journal is obsolete only if the database has been written successfully
+			journal.clear();
+		}
+		ByteBuffer stats = changes.getStatistics();
+		// only if the database has not been changed by others since
+		if (folded && changes.isFinish() && isFileStateKnown()) {
+			if (!snapshot.isFresh()) {
+				writeSnapshot();
+			}
+			long now = System.currentTimeMillis();
+			if (!statistics.isFresh(now)) {
+				stats = statistics.capture(written, now);
+			}
+		}
+		if (stats != null) {
+			// before appending to the journal, as its size is stamped
+			statistics.writeData(stats);
+		}
+		ByteBuffer records = changes.getRecords(folded);
+		if (records.hasRemaining()) {
+			long appendStart = System.nanoTime();
+			try {
+				journal.append(records, getFile());
+			}
+			catch (IOException e) {
+				Log.warn("Appending to journal failed. Folding it into vocabulary base instead.");
+				Log.warn(e.toString());
+				needsFold = true;
+			}
+			journalAppendTime.recordSince(appendStart);
+		}
+		writeTime.recordSince(start);
+	}
+
+	/**
+	 * Applies the given stats to the written vocs and writes them to the database, in place if possible, otherwise
+	 * completely. An up to date snapshot is patched along with the database, a complete write rewrites it.
+	 *
+	 * @return whether the database matches the written vocs
+	 */
+	private boolean writeFold(Collection<PendingChanges.Patch> patches) {
+		boolean inPlace = !databaseBehind;
+		for (PendingChanges.Patch patch : patches) {
+			written.setStats(patch.index, patch.lastAsked, patch.asked, patch.failed, patch.succeeded_in_a_row);
+			inPlace = inPlace && canPatch(patch.index);
+		}
+		if (inPlace && !patches.isEmpty() && !isFileStateKnown()) {
+			Log.verbose("Vocabulary base changed since last read. Writing it completely.");
+			inPlace = false;
+		}
+		if (inPlace) {
+			boolean snapshotFresh = snapshot.isFresh();
+			inPlace = patch(patches);
+			if (inPlace && snapshotFresh && !patches.isEmpty()) {
+				snapshot.patch(written.size(), patches);
+			}
+		}
+		databaseBehind = !inPlace && !writeCompletely();
+		if (databaseBehind) {
+			needsFold = true;
+		}
+		return !databaseBehind;
+	}
+
+	private boolean canPatch(int index) {
+		if (index >= statsOffsets.length || statsOffsets[index] < 0 || !FixedStatsLayout.fits(written.get(index))) {
+			Log.verbose("\"%s\" cannot be updated in place. Writing vocabulary base completely.",
+					written.getWord(index));
+			return false;
+		}
+		return true;
+	}
+
+	private boolean writeCompletely() {
+		Log.verbose("Write vocabulary base to: %s", getFile().getAbsolutePath());
+		long[] offsets = new long[written.size()];
+		if (writeFile(toCsv(written.asList(), offsets))) {
+			statsOffsets = offsets;
+			rememberFileState();
+			completeWrites.increment();
+			writeSnapshot();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Overwrites the stats of the given vocs in place.
+	 *
+	 * @return <code>false</code> if the file cannot be patched and has to be written completely
+	 */
+	private boolean patch(Collection<PendingChanges.Patch> patches) {
+		if (patches.isEmpty()) return true;
+
+		File file = getFile();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			for (PendingChanges.Patch patch : patches) {
+				ByteBuffer stats = ByteBuffer.wrap(FixedStatsLayout.getStatsBytes(written.get(patch.index)));
+				long position = statsOffsets[patch.index];
+				while (stats.hasRemaining()) {
+					position += channel.write(stats, position);
+				}
+			}
+			channel.force(false);
+		}
+		catch (IOException e) {
+			Log.warn("Updating vocabulary base in place failed. Writing it completely.");
+			Log.warn(e.toString());
+			return false;
+		}
+		Log.verbose("Updated %d vocs in place in: %s", patches.size(), file.getAbsolutePath());
+		patchedVocs.add(patches.size());
+		rememberFileState();
+		return true;
+	}
+
+	private void writeSnapshot() {
+		ByteBuffer snap = snapshot.capture(written, statsOffsets);
+		if (snap != null) {
+			Log.verbose("Write snapshot of vocabulary base");
+			snapshot.writeData(snap);
+		}
+	}
+
+	private synchronized void rememberFileState() {
+		knownLength = getFile().length();
+		knownModified = getFile().lastModified();
+	}
+
+	/**
+	 * @return whether the file is still in the state of the last load or write
+	 */
+	private synchronized boolean isFileStateKnown() {
+		return getFile().length() == knownLength && getFile().lastModified() == knownModified;
+	}
+
 	private StringBuilder getLine(Vocabulary voc) {
 		StringBuilder line = new StringBuilder();
 		line.append(quote(voc.getWord()))
 				.append(quote(voc.getMeaning()))
 				.append(quote(voc.getMnemonic()))
-				.append(quote(voc.getAdded()))
-				.append(quote(voc.getLastAsked() == 0 ? "" : voc.getLastAsked()))
-				.append(quote(voc.getAsked()))
-				.append(quote(voc.getFailed()))
-				.append(quote(voc.getSucceeded_in_a_row()));
-		return line.deleteCharAt(line.length() - 1);
+				.append(quote(voc.getAdded()));
+		return FixedStatsLayout.appendStats(line, voc);
 	}
 
 	private String quote(Object inner) {
@@ -0,0 +1,295 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.Log;
+import de.noxafy.utils.data.DataManager;
+import de.noxafy.voc.core.model.VocabularyBase;
+import de.noxafy.voc.core.model.VocabularyStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Binary snapshot of a vocabulary database stored next to it, to skip parsing the csv on startup.
+ * The columns of the {@link VocabularyStore} are stored as they are, so loading is a bulk copy: the stats, the text
+ * offsets and the texts as UTF-8. The header stamps the size and modification date of the csv the snapshot was taken
+ * from, so a stale snapshot is ignored. As the stats are stored in columns of fixed width, the stats of single vocs
+ * are {@link #patch patched} in place along with the csv.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class VocabularySnapshotManager extends DataManager<VocabularyBase, ByteBuffer> {
+
+	private static final int MAGIC = 0x766f6353; // "vocS"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+	// stats, stats offset and text offsets
+	private static final int BYTES_PER_VOC = 8 + 8 + 4 + 4 + 4 + 8 + 3 * 4;
+
+	private final File database;
+	private final File file;
+	// stats offsets of the csv, stored along with the vocs, as of the last load or capture
+	private long[] statsOffsets = new long[0];
+
+	VocabularySnapshotManager(File database) {
+		this.database = database;
+		this.file = new File(database.getPath() + ".snapshot");
+	}
+
+	/**
+	 * @return whether a snapshot of the current state of the database exists
+	 */
+	boolean isFresh() {
+		if (!file.exists()) return false;
+		try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && in.read(header) != -1) {
+				// read fully
+			}
+			header.flip();
+			return header.remaining() == HEADER_SIZE
+					&& header.getInt() == MAGIC
+					&& header.getInt() == VERSION
+					&& header.getLong() == database.length()
+					&& header.getLong() == database.lastModified();
+		}
+		catch (IOException e) {
+			Log.warn("Reading snapshot " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return false;
+		}
+	}
+
+	/**
+	 * Loads the vocs of the snapshot in database order. The stats offsets are available via
+	 * {@link #getStatsOffsets()} afterwards.
+	 *
+	 * @return the vocs or <code>null</code> if the snapshot is not readable
+	 */
+	@Nullable
+	VocabularyStore loadVocs() {
+		ByteBuffer data = readData();
+		return data == null ? null : toVocs(data);
+	}
+
+	@Nullable
+	private VocabularyStore toVocs(ByteBuffer data) {
+		try {
+			return readVocs(data);
+		}
+		catch (BufferUnderflowException | IllegalArgumentException e) {
+			Log.warn("Snapshot " + file.getAbsolutePath() + " is corrupt.");
+			Log.warn(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * @return the stats offsets of the last loaded or captured snapshot
+	 */
+	long[] getStatsOffsets() {
+		return statsOffsets;
+	}
+
+	/**
+	 * Creates a snapshot of the given vocs to be {@link #writeData written} once the database matches them. The
+	 * snapshot is stamped with the state of the database when it is written.
+	 *
+	 * @param vocs         the vocs in database order
+	 * @param statsOffsets byte offsets of the stats of the vocs in the database
+	 * @return the snapshot or <code>null</code> if the vocs do not fit into a snapshot
+	 */
+	@Nullable
+	ByteBuffer capture(VocabularyStore vocs, long[] statsOffsets) {
+		try {
+			ByteBuffer data = toSnapshot(vocs, statsOffsets);
+			this.statsOffsets = statsOffsets;
+			return data;
+		}
+		catch (IllegalArgumentException e) {
+			Log.verbose("No snapshot taken: %s", e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Overwrites the stats of the given vocs in place, after they have been patched in the database the snapshot
+	 * {@link #isFresh() matched} before. The snapshot is stamped with the state of the database afterwards. Stats are written and forced before the stamp, so the
+	 * snapshot is stale rather than wrong, if patching is interrupted.
+	 *
+	 * @param size    number of vocs in the database
+	 * @param patches stats of the vocs patched in the database
+	 * @return whether the snapshot matches the database now, <code>false</code> if it holds another number of vocs
+	 * or writing failed
+	 */
+	boolean patch(int size, Collection<PendingChanges.Patch> patches) {
+		try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && out.read(header, header.position()) != -1) {
+				// read fully
+			}
+			if (header.hasRemaining() || header.getInt(HEADER_SIZE - 4) != size) {
+				return false;
+			}
+			long lastAsked = HEADER_SIZE + size * 8L;
+			long asked = lastAsked + size * 8L;
+			long failed = asked + size * 4L;
+			long succeeded_in_a_row = failed + size * 4L;
+			for (PendingChanges.Patch patch : patches) {
+				writeFully(out, ByteBuffer.allocate(8).putLong(0, patch.lastAsked), lastAsked + patch.index * 8L);
+				writeFully(out, ByteBuffer.allocate(4).putInt(0, patch.asked), asked + patch.index * 4L);
+				writeFully(out, ByteBuffer.allocate(4).putInt(0, patch.failed), failed + patch.index * 4L);
+				writeFully(out, ByteBuffer.allocate(4).putInt(0, patch.succeeded_in_a_row),
+						succeeded_in_a_row + patch.index * 4L);
+			}
+			out.force(false);
+			writeFully(out, ByteBuffer.allocate(16).putLong(0, database.length()).putLong(8, database.lastModified()),
+					4 + 4);
+			out.force(false);
+			return true;
+		}
+		catch (IOException e) {
+			Log.warn("Updating snapshot " + file.getAbsolutePath() + " in place failed.");
+			Log.warn(e.toString());
+			return false;
+		}
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer data, long position) throws IOException {
+		while (data.hasRemaining()) {
+			position += out.write(data, position);
+		}
+	}
+
+	@NotNull
+	@Override
+	protected VocabularyBase onLoad(@Nullable ByteBuffer data) {
+		VocabularyStore vocs = data == null ? null : toVocs(data);
+		return new VocabularyBase(vocs == null ? new VocabularyStore() : vocs);
+	}
+
+	@NotNull
+	@Override
+	protected ByteBuffer onWrite(@NotNull VocabularyBase base) {
+		return toSnapshot(base.getStore(), statsOffsets);
+	}
+
+	private VocabularyStore readVocs(ByteBuffer data) {
+		data.position(4 + 4 + 8 + 8);
+		int size = data.getInt();
+		// checked before allocating anything, so a corrupt size does not exhaust the memory
+		if (size < 0 || (long) size * BYTES_PER_VOC + 4 > data.remaining()) {
+			throw new IllegalArgumentException("Invalid number of vocs: " + size);
+		}
+		long[] added = new long[size];
+		long[] lastAsked = new long[size];
+		int[] asked = new int[size];
+		int[] failed = new int[size];
+		int[] succeeded_in_a_row = new int[size];
+		long[] offsets = new long[size];
+		int[] textOffsets = new int[3 * size + 1];
+		data.asLongBuffer().get(added);
+		data.position(data.position() + size * 8);
+		data.asLongBuffer().get(lastAsked);
+		data.position(data.position() + size * 8);
+		data.asIntBuffer().get(asked);
+		data.position(data.position() + size * 4);
+		data.asIntBuffer().get(failed);
+		data.position(data.position() + size * 4);
+		data.asIntBuffer().get(succeeded_in_a_row);
+		data.position(data.position() + size * 4);
+		data.asLongBuffer().get(offsets);
+		data.position(data.position() + size * 8);
+		data.asIntBuffer().get(textOffsets);
+		data.position(data.position() + textOffsets.length * 4);
+		int textLength = textOffsets[3 * size];
+		if (textLength < 0 || textLength > data.remaining()) {
+			throw new IllegalArgumentException("Invalid length of texts: " + textLength);
+		}
+		byte[] texts = new byte[textLength];
+		data.get(texts);
+
+		VocabularyStore vocs = VocabularyStore.wrap(added, lastAsked, asked, failed, succeeded_in_a_row, textOffsets,
+				texts);
+		statsOffsets = offsets;
+		return vocs;
+	}
+
+	private ByteBuffer toSnapshot(VocabularyStore vocs, long[] statsOffsets) {
+		int size = vocs.size();
+		ByteBuffer texts = vocs.getTexts();
+		long length = HEADER_SIZE + (long) size * BYTES_PER_VOC + 4 + texts.remaining();
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Vocabulary base too big for a snapshot: " + length + " bytes");
+		}
+
+		ByteBuffer data = ByteBuffer.allocate((int) length);
+		// database state is stamped when written
+		data.putInt(MAGIC).putInt(VERSION).putLong(-1).putLong(-1).putInt(size);
+		for (int i = 0; i < size; i++) data.putLong(vocs.getAdded(i));
+		for (int i = 0; i < size; i++) data.putLong(vocs.getLastAsked(i));
+		for (int i = 0; i < size; i++) data.putInt(vocs.getAsked(i));
+		for (int i = 0; i < size; i++) data.putInt(vocs.getFailed(i));
+		for (int i = 0; i < size; i++) data.putInt(vocs.getSucceededInARow(i));
+		for (int i = 0; i < size; i++) {
+			data.putLong(i < statsOffsets.length ? statsOffsets[i] : -1);
+		}
+		for (int k = 0; k <= 3 * size; k++) {
+			data.putInt(vocs.getTextOffset(k));
+		}
+		data.put(texts);
+		data.flip();
+		return data;
+	}
+
+	@Nullable
+	@Override
+	protected ByteBuffer readData() {
+		try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+		}
+		catch (IOException e) {
+			Log.warn("Reading snapshot " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Stamps the snapshot with the current state of the database and writes it to a temporary file first, so a
+	 * snapshot is never read half written.
+	 */
+	@Override
+	protected void writeData(@NotNull ByteBuffer data) {
+		data.putLong(4 + 4, database.length()).putLong(4 + 4 + 8, database.lastModified());
+		File tmp = new File(file.getPath() + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				out.write(data);
+			}
+			out.force(false);
+		}
+		catch (IOException e) {
+			Log.warn("Writing snapshot " + tmp.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return;
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Log.warn("Replacing snapshot " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.utils.IntList;
+import de.noxafy.utils.Log;
+import de.noxafy.utils.TopKSelector;
+import de.noxafy.voc.core.model.VocabularyStatistics;
+import de.noxafy.voc.core.model.VocabularyStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Summary counts of a vocabulary database stored next to it, so statistics can be shown without loading the database.
+ * Besides the counts per succeeded in a row value as of when it was captured, it holds the due times of the next vocs
+ * to become due, which keeps the number of vocs todo exact until the last of them is due. The header stamps the size
+ * and modification date of the database and the size of its journal, so sidecars of another state are ignored.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+final class VocabularyStatisticsSidecar {
+
+	private static final int MAGIC = 0x766f6354; // "vocT"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 8;
+	// number of upcoming due times stored
+	private static final int MAX_UPCOMING = 1024;
+
+	private final File database;
+	private final File journal;
+	private final File file;
+
+	VocabularyStatisticsSidecar(File database, File journal) {
+		this.database = database;
+		this.journal = journal;
+		this.file = new File(database.getPath() + ".stats");
+	}
+
+	/**
+	 * @return whether the sidecar matches the current state of the database and is exact at the given time
+	 */
+	boolean isFresh(long now) {
+		ByteBuffer data = readData();
+		return data != null && isFresh(data, now);
+	}
+
+	private boolean isFresh(ByteBuffer data, long now) {
+		return data.remaining() >= HEADER_SIZE
+				&& data.getInt(0) == MAGIC
+				&& data.getInt(4) == VERSION
+				&& data.getLong(8) == database.length()
+				&& data.getLong(16) == database.lastModified()
+				&& data.getLong(24) == journal.length()
+				&& now <= data.getLong(32);
+	}
+
+	/**
+	 * @return the statistics at the given time or <code>null</code> if the sidecar is stale or not readable
+	 */
+	@Nullable
+	VocabularyStatistics load(long now) {
+		ByteBuffer data = readData();
+		if (data == null || !isFresh(data, now)) return null;
+		try {
+			data.position(HEADER_SIZE);
+			int new_cnt = data.getInt();
+			int siars = data.getInt();
+			if (siars < 0) {
+				throw new IllegalArgumentException("Invalid number of counts: " + siars);
+			}
+			int[] siar_cnts = new int[siars];
+			int[] todo_siar_cnts = new int[siars];
+			data.asIntBuffer().get(siar_cnts);
+			data.position(data.position() + siars * 4);
+			data.asIntBuffer().get(todo_siar_cnts);
+			data.position(data.position() + siars * 4);
+			// upcoming vocs due by now, ascending by due time
+			int upcoming = data.getInt();
+			for (int i = 0; i < upcoming; i++) {
+				long due = data.getLong();
+				int siar = data.getInt();
+				if (now <= due) break;
+				if (siar < 0 || siar >= siars) {
+					throw new IllegalArgumentException("Invalid succeeded in a row value: " + siar);
+				}
+				todo_siar_cnts[siar]++;
+			}
+			return new VocabularyStatistics(new_cnt, siar_cnts, todo_siar_cnts);
+		}
+		catch (BufferUnderflowException | IllegalArgumentException e) {
+			Log.warn("Statistics " + file.getAbsolutePath() + " are corrupt.");
+			Log.warn(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Counts the given vocs to be {@link #writeData written} once the database matches them. The sidecar is stamped
+	 * with the state of the database when it is written.
+	 *
+	 * @param vocs the vocs as stored in the database and its journal
+	 * @param now  the time the vocs todo are counted at
+	 */
+	@NotNull
+	ByteBuffer capture(VocabularyStore vocs, long now) {
+		int new_cnt = 0;
+		int[] siar_cnts = new int[16];
+		int[] todo_siar_cnts = new int[16];
+		TopKSelector upcoming = new TopKSelector(MAX_UPCOMING + 1);
+		int upcoming_cnt = 0;
+		for (int i = 0; i < vocs.size(); i++) {
+			if (vocs.isNew(i)) {
+				new_cnt++;
+				continue;
+			}
+			int siar = vocs.getSucceededInARow(i);
+			if (siar >= siar_cnts.length) {
+				siar_cnts = Arrays.copyOf(siar_cnts, Math.max(siar_cnts.length * 2, siar + 1));
+				todo_siar_cnts = Arrays.copyOf(todo_siar_cnts, siar_cnts.length);
+			}
+			siar_cnts[siar]++;
+			long due = vocs.getDueTime(i);
+			if (now > due) {
+				todo_siar_cnts[siar]++;
+			}
+			else {
+				// soonest due first
+				upcoming.offer(i, -(double) due);
+				upcoming_cnt++;
+			}
+		}
+
+		IntList next = upcoming.getSelected();
+		// exact as long as no voc beyond the stored ones can be due
+		long validUntil = Long.MAX_VALUE;
+		if (upcoming_cnt > MAX_UPCOMING) {
+			validUntil = vocs.getDueTime(next.get(MAX_UPCOMING));
+			next.removeAt(MAX_UPCOMING);
+		}
+
+		ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + 4 + 4 + siar_cnts.length * 8 + 4 + next.size() * 12);
+		// database state is stamped when written
+		data.putInt(MAGIC).putInt(VERSION).putLong(-1).putLong(-1).putLong(-1).putLong(validUntil);
+		data.putInt(new_cnt).putInt(siar_cnts.length);
+		for (int cnt : siar_cnts) data.putInt(cnt);
+		for (int cnt : todo_siar_cnts) data.putInt(cnt);
+		data.putInt(next.size());
+		for (int i = 0; i < next.size(); i++) {
+			data.putLong(vocs.getDueTime(next.get(i))).putInt(vocs.getSucceededInARow(next.get(i)));
+		}
+		data.flip();
+		return data;
+	}
+
+	@Nullable
+	private ByteBuffer readData() {
+		if (!file.exists()) return null;
+		try {
+			return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		}
+		catch (IOException e) {
+			Log.warn("Reading statistics " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Stamps the sidecar with the current state of the database and its journal and writes it to a temporary file
+	 * first, so it is never read half written.
+	 */
+	void writeData(@NotNull ByteBuffer data) {
+		data.putLong(8, database.length()).putLong(16, database.lastModified()).putLong(24, journal.length());
+		File tmp = new File(file.getPath() + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				out.write(data);
+			}
+		}
+		catch (IOException e) {
+			Log.warn("Writing statistics " + tmp.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+			return;
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Log.warn("Replacing statistics " + file.getAbsolutePath() + " failed.");
+			Log.warn(e.toString());
+		}
+	}
+}
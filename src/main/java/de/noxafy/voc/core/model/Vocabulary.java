@@ -1,44 +1,42 @@
 package de.noxafy.voc.core.model;
 
-import de.noxafy.utils.Log;
-
 /**
+ * View onto one voc of a {@link VocabularyStore}.
+ *
  * @author noxafy
  * @created 28.08.17
  */
 public class Vocabulary {
 
-	// foreign lang
-	private final String word;
-	// own lang
-	private final String meaning;
-	// helping comment
-	private final String mnemonic;
-	// additional saved
-	private final long added;
-	private int asked;
-	private int failed;
-	private int succeeded_in_a_row;
-	private long lastAsked;
-	// calculated
-	private double rating;
-	private KnowledgeLevel level;
-	private long ratingDate;
+	private final VocabularyStore store;
+	// position in store
+	private final int index;
 
+	/**
+	 * Creates a voc not belonging to any database, held in a store of its own.
+	 */
 	public Vocabulary(String word, String meaning, String mnemonic, long added, long lastAsked, int asked, int failed, int succeeded_in_a_row) {
-		this.word = word;
-		this.meaning = meaning;
-		this.mnemonic = mnemonic;
-		this.added = added;
-		this.lastAsked = lastAsked;
-		this.asked = asked;
-		this.failed = failed;
-		this.succeeded_in_a_row = succeeded_in_a_row;
-		level = KnowledgeLevel.decide(succeeded_in_a_row);
+		this.store = new VocabularyStore(1, 0);
+		this.index = store.add(word, meaning, mnemonic, added, lastAsked, asked, failed, succeeded_in_a_row);
+	}
+
+	/**
+	 * View onto an entry of the given store.
+	 */
+	Vocabulary(VocabularyStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+	/**
+	 * @return position of the voc in its store, which is the position in its database for a voc of a database
+	 */
+	public int getIndex() {
+		return index;
 	}
 
 	public long getAdded() {
-		return added;
+		return store.getAdded(index);
 	}
 
 	/**
@@ -47,138 +45,90 @@ public class Vocabulary {
 	 * @return date when voc was asked last time
 	 */
 	public long getLastAsked() {
-		return lastAsked;
+		return store.getLastAsked(index);
 	}
 
 	public String getWord() {
-		return word;
+		return store.getWord(index);
 	}
 
 	public String getMeaning() {
-		return meaning;
+		return store.getMeaning(index);
 	}
 
 	public String getMnemonic() {
-		return mnemonic;
+		return store.getMnemonic(index);
 	}
 
 	public int getAsked() {
-		return asked;
+		return store.getAsked(index);
 	}
 
 	public void succeeded() {
-		succeeded_in_a_row++;
-		level = KnowledgeLevel.decide(succeeded_in_a_row);
-		asked();
+		store.succeeded(index);
 	}
 
 	public void failed() {
-		succeeded_in_a_row = Math.max(succeeded_in_a_row - 3, 0);
-		level = KnowledgeLevel.decide(succeeded_in_a_row);
-		failed++;
-		asked();
-	}
-
-	private void asked() {
-		asked++;
-		lastAsked = System.currentTimeMillis();
+		store.failed(index);
 	}
 
 	public boolean isNew() {
-		return asked < 3 && succeeded_in_a_row < 1;
+		return store.isNew(index);
 	}
 
 	public int getSucceeded_in_a_row() {
-		return succeeded_in_a_row;
+		return store.getSucceededInARow(index);
 	}
 
 	public boolean isKnown() {
-		return level != KnowledgeLevel.UNKNOWN;
+		return !store.isUnknown(index);
 	}
 
 	public boolean isUnknown() {
-		return level == KnowledgeLevel.UNKNOWN;
+		return store.isUnknown(index);
 	}
 
 	public int getFailed() {
-		return failed;
+		return store.getFailed(index);
 	}
 
 	public KnowledgeLevel getLevel() {
-		return level;
+		return store.getLevel(index);
 	}
 
 	public double getRating(long now) {
-		if (ratingDate == 0 || now != ratingDate) {
-			ratingDate = now;
-			// 0 ... 1 for number of fails
-			double failRate = (isNew()) ? 0.5 : failed / (double) asked;
-			if (succeeded_in_a_row > 2) {
-				failRate /= succeeded_in_a_row - 2;
-			}
-			// (-20000 ...) 0 ... 1 for time passed since last asked
-			// never asked vocs should be asked, so default to 1
-			double time_passed_rating = 1;
-			if (lastAsked != 0) {
-				long forgot50percents = 43200000; // half day
-				long time_passed = now - lastAsked;
-				// prevent div 0 error
-				time_passed++;
-				time_passed_rating = -forgot50percents / (double) (time_passed + forgot50percents) + 1;
-				// rate just asked vocs very bad
-				if (time_passed < 20000) {
-					time_passed_rating -= 20000d / time_passed - 1;
-				}
-			}
-			double random = Math.random() * 3;
-			// failRate weighted 3 times
-			// 57% via heuristics, 43% random
-			rating = 3 * failRate + time_passed_rating + random;
-			if (Log.isLevel(Log.Level.VERBOSE)) {
-				StringBuilder tabs = new StringBuilder();
-				for (int wlength = word.length() + 17; wlength < 48; wlength += 8) {
-					tabs.append("\t");
-				}
-				Log.debugWithTab(
-						"Rated \"%s\":%slevel = %s, failR = %.2f, tpr = %.2f, rnd = %.2f -> rating = %.2f",
-						word, tabs, level, 3 * failRate, time_passed_rating, random, rating
-				);
-			}
-		}
-		return rating;
+		return store.getRating(index, now);
 	}
 
 	public boolean shouldBeAsked(long now) {
-		if (level == KnowledgeLevel.UNKNOWN) return true;
-
-		long diff = now - lastAsked;
-		switch (level) {
-			case LEVEL1:
-				return diff > 86400000L; // 1 day
-			case LEVEL2:
-				return diff > 259200000L; // 3 days
-			case LEVEL3:
-				return diff > 604800000L; // 7 days
-			case LEVEL4:
-				return diff > 7862400000L; // 3 months
-			case LEVEL5:
-				return diff > 31536000000L; // 1 year
-			default:
-				throw new IllegalArgumentException("Unknown level: " + level + " for " + this);
-		}
+		return store.shouldBeAsked(index, now);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Vocabulary)) return false;
+		Vocabulary other = (Vocabulary) o;
+		return store == other.store && index == other.index;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(store) + index;
 	}
 
 	@Override
 	public String toString() {
+		String mnemonic = getMnemonic();
 		return String.format("word: %s; meaning: %s%s (l: %s, a: %d, f: %d, srow: %d, rtng: %.2f)",
-				word,
-				meaning,
+				getWord(),
+				getMeaning(),
 				((mnemonic != null) && !"".equals(mnemonic)) ? "; mnemonic: " + mnemonic : "",
-				level.toString(),
-				asked,
-				failed,
-				succeeded_in_a_row,
-				rating
+				getLevel().toString(),
+				getAsked(),
+				getFailed(),
+				getSucceeded_in_a_row(),
+				store.getLastRating(index)
 		);
 	}
 
@@ -1,15 +1,26 @@
 package de.noxafy.voc.core.model;
 
+import de.noxafy.utils.Clock;
+import de.noxafy.utils.IndexedHeap;
+import de.noxafy.utils.IndexedIntSet;
+import de.noxafy.utils.IntList;
 import de.noxafy.utils.Log;
+import de.noxafy.utils.RandomSampler;
+import de.noxafy.utils.TopKSelector;
+import de.noxafy.utils.metrics.Gauge;
+import de.noxafy.utils.metrics.Histogram;
+import de.noxafy.utils.metrics.Metrics;
 import de.noxafy.voc.core.Settings;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
 
 import static java.lang.Math.min;
-import static java.util.Comparator.comparingDouble;
 
 /**
  * @author noxafy
@@ -17,37 +28,96 @@ import static java.util.Comparator.comparingDouble;
  */
 public class VocabularyBase {
 
-	private static final Random rand = new Random();
+	private static final Histogram generateTodoTime = Metrics.histogram("schedule.generateTodo");
+	private static final Histogram generateVocsForTodayTime = Metrics.histogram("schedule.generateVocsForToday");
+	private static final Histogram nextTime = Metrics.histogram("session.next");
+	private static final Histogram updateTime = Metrics.histogram("session.update");
+	private static final Gauge todoGauge = Metrics.gauge("schedule.todo");
+	private static final Gauge todayGauge = Metrics.gauge("schedule.today");
 
-	private final List<Vocabulary> asked_vocs = new LinkedList<>();
-	private final List<Vocabulary> new_vocs = new LinkedList<>();
-	private final List<Vocabulary> unknowns = new ArrayList<>();
+	private Random rand = new Random();
+	private Clock clock = Clock.SYSTEM;
+
+	// all vocs in database order, the sets below hold indices into it and track their position per voc, so moving
+	// a voc between them is O(1)
+	private final VocabularyStore store;
+	// disjoint, sharing their positions
+	private final IndexedIntSet asked_vocs;
+	private final IndexedIntSet new_vocs;
+	// disjoint, sharing their positions
+	private final IndexedIntSet unknowns;
 
 	/**
 	 * Contains all vocs already asked (not {@link Vocabulary#isNew}) but {@link Vocabulary#shouldBeAsked}, EXCEPT ones
 	 * that are {@link Vocabulary#isUnknown}. Unknown vocs are only existing in database, if user terminated session
 	 * premature, and are therefore stored in an dedicated list {@link #unknowns} to get preferred in {@link #generateVocsForToday}.
 	 */
-	private List<Vocabulary> todo;
+	private final IndexedIntSet todo;
+
+	// Fill with Settings.NUMBER_SIMUL_VOCS vocs, rated anew for each question
+	private final IndexedIntSet todo_now;
+
+	// asked vocs keyed by their negated due time, so the vocs due first are on top
+	private final IndexedHeap due_index;
+
+	// new vocs by date added, latest first, built when needed
+	private IntList newest_new_vocs;
+
+	private int last_asked = -1;
+
+	// indices of vocs changed since last write
+	private final BitSet dirty = new BitSet();
 
-	// Fill with Settings.NUMBER_SIMUL_VOCS vocs
-	private final List<Vocabulary> todo_now = new LinkedList<>();
+	// counts of the vocs above, updated along with them
+	private final VocabularyStatistics stats = new VocabularyStatistics();
 
-	private Vocabulary last_asked;
+	public VocabularyBase(VocabularyStore store) {
+		this.store = store;
+		int size = store.size();
+		int[] queue_positions = IndexedIntSet.newPositions(size);
+		asked_vocs = new IndexedIntSet(queue_positions);
+		new_vocs = new IndexedIntSet(queue_positions);
+		int[] todo_positions = IndexedIntSet.newPositions(size);
+		unknowns = new IndexedIntSet(todo_positions);
+		todo = new IndexedIntSet(todo_positions);
+		todo_now = new IndexedIntSet(size);
 
-	public VocabularyBase(List<Vocabulary> vocs) {
-		for (Vocabulary voc : vocs) {
-			if (voc.isNew()) {
-				new_vocs.add(voc);
+		IntList asked = new IntList();
+		for (int i = 0; i < size; i++) {
+			if (store.isNew(i)) {
+				new_vocs.add(i);
 			}
 			else {
-				asked_vocs.add(voc);
+				asked_vocs.add(i);
+				asked.add(i);
+				stats.add(store.getSucceededInARow(i), 1);
 			}
 		}
+		stats.addNew(new_vocs.size());
+		due_index = new IndexedHeap(size);
+		due_index.addAll(asked, this::dueKey);
+		store.setStatsListener(this::statsChanged);
+	}
+
+	/**
+	 * @param clock gives the current time for scheduling and answers
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+		store.setClock(clock);
+	}
+
+	/**
+	 * @param random source of all random decisions, including the random part of ratings
+	 */
+	public void setRandom(Random random) {
+		this.rand = random;
+		store.setRandom(new SplittableRandom(random.nextLong()));
 	}
 
 	public void generateVocsForToday(Settings settings) {
-		long now = System.currentTimeMillis();
+		long start = System.nanoTime();
+		long now = clock.millis();
 
 		// get how many at all should be asked
 		int should_be_asked_overall = settings.NUMBER_SIMUL_VOCS;
@@ -56,31 +126,36 @@ public class VocabularyBase {
 		// first, add all from unknown vocs (per definition not contained in todolist)
 		Log.verbose("Unknowns to ask: %d", unknowns.size());
 		for (int i = 0; i < unknowns.size() && todo_now.size() < should_be_asked_overall; i++) {
-			Vocabulary v = unknowns.get(i);
-			Log.debug("Add from unknown vocs: %s", v);
+			int v = unknowns.get(i);
+			Log.debug("Add from unknown vocs: %s", store.get(v));
 			todo_now.add(v);
 		}
 
 		// see if all todos fit in rest (ignores new vocs constraint, but satisfies user)
 		if (should_be_asked_overall - todo_now.size() >= todo.size()) {
 			Log.verbose("Add all %d items to do", todo.size());
-			todo_now.addAll(todo);
+			for (int i = 0; i < todo.size(); i++) {
+				todo_now.add(todo.get(i));
+			}
 		}
 		else {
 			// add the highest rated vocs from todolist but leave space for new
 			int should_be_asked_from_asked = should_be_asked_overall - settings.NUMBER_NEW_VOCS;
 			// if space left
 			if (should_be_asked_overall - todo_now.size() > 0) {
-				// sort todolist
-				Log.verbose("Sorting all todo's by rating");
-				sortList(todo);
-				Log.debug(todo);
 				// add highest rated vocs
-				Log.verbose("Adding %d highest rated vocs", min(should_be_asked_from_asked - todo_now.size(),
-						todo.size()));
-				for (int i = todo.size() - 1; i > 0 && todo_now.size() < should_be_asked_from_asked; i--) {
-					Vocabulary v = todo.get(i);
-					Log.debug("Add from asked vocs: %s", v);
+				int to_add = min(should_be_asked_from_asked - todo_now.size(), todo.size());
+				Log.verbose("Adding %d highest rated vocs", Math.max(to_add, 0));
+				// rated block by block as they are streamed in, so the ratings of all todos are never stored at once
+				IntList highest = TopKSelector.select(to_add, consumer -> {
+					for (int i = 0; i < todo.size(); i++) {
+						consumer.accept(todo.get(i));
+					}
+				}, min(VocabularyStore.RATING_BLOCK_SIZE, todo.size()), (ids, count, ratings) ->
+						store.rate(ids, count, now, ratings));
+				for (int i = 0; i < highest.size(); i++) {
+					int v = highest.get(i);
+					Log.debug("Add from asked vocs: %s", store.get(v));
 					todo_now.add(v);
 				}
 			}
@@ -89,68 +164,105 @@ public class VocabularyBase {
 		// if space left
 		Log.verbose("Adding %d new vocs", should_be_asked_overall - todo_now.size());
 		if (should_be_asked_overall > todo_now.size()) {
-			// ask randomly from new vocs
-			List<Vocabulary> new2 = new LinkedList<>(new_vocs);
-			while (todo_now.size() < should_be_asked_overall && !new2.isEmpty()) {
-				Vocabulary v = new2.remove(rand.nextInt(new2.size()));
-				Log.debugWithTab("Added from new vocs: %s", v);
-				todo_now.add(v);
+			int to_add = should_be_asked_overall - todo_now.size();
+			if (settings.NEW_VOCS_NEWEST_FIRST) {
+				// ask last added new vocs first
+				IntList newest = getNewestNewVocs(to_add);
+				for (int i = 0; i < newest.size(); i++) {
+					int v = newest.get(i);
+					Log.debugWithTab("Added from newer vocs: %s", store.get(v));
+					todo_now.add(v);
+				}
+			}
+			else {
+				// ask randomly from new vocs
+				IntList picked = RandomSampler.sample(new_vocs.size(), to_add, rand);
+				for (int i = 0; i < picked.size(); i++) {
+					int v = new_vocs.get(picked.get(i));
+					Log.debugWithTab("Added from new vocs: %s", store.get(v));
+					todo_now.add(v);
+				}
 			}
 		}
 
-		Log.verbose("Todo today generation done with %d vocs in %d ms", todo_now.size(), System.currentTimeMillis() - now);
+		generateVocsForTodayTime.recordSince(start);
+		todayGauge.set(todo_now.size());
+		Log.verbose("Todo today generation done with %d vocs in %d ms", todo_now.size(),
+				(System.nanoTime() - start) / 1000000);
+	}
 
-		//  ask last added new vocs first
-//		List<Vocabulary> new2 = new LinkedList<>(new_vocs);
-//		new2.sort(Comparator.comparing(Vocabulary::getAdded).reversed());
-//		while (new_vocs_add > 0 && !new2.isEmpty()) {
-//			Vocabulary v = new2.remove(0);
-//			ui.debug("Added from newer voc: " + v);
-//			todo_now.add(v);
-//			new_vocs_add--;
-//		}
+	/**
+	 * @return up to <code>count</code> new vocs, the latest added first
+	 */
+	private IntList getNewestNewVocs(int count) {
+		if (newest_new_vocs == null) {
+			// vocs are only ever removed from new_vocs, so the index only has to skip the removed ones
+			newest_new_vocs = new_vocs.toIntList();
+			newest_new_vocs.sortBy(v -> -(double) store.getAdded(v));
+		}
+		IntList newest = new IntList(count);
+		for (int i = 0; i < newest_new_vocs.size() && newest.size() < count; i++) {
+			int v = newest_new_vocs.get(i);
+			if (new_vocs.contains(v)) {
+				newest.add(v);
+			}
+		}
+		return newest;
 	}
 
 	public void generateTodo() {
 		// sort out vocs that have to be learned now
 		Log.verbose("Picking up vocs that have to be learned now");
-		long now = System.currentTimeMillis();
-		todo = new ArrayList<>(asked_vocs.size()); // filled if asking routine has been run
-		for (Vocabulary v : asked_vocs) {
-			if (v.isUnknown()) {
+		long start = System.nanoTime();
+		long now = clock.millis();
+		todo.clear(); // filled if asking routine has been run
+		unknowns.clear();
+		stats.clearTodo();
+		// only visits the vocs due
+		due_index.forEachAbove(-(double) now, v -> {
+			if (store.isUnknown(v)) {
 				unknowns.add(v);
-				Log.debugWithTab("To ask from unknown: %s", v);
 			}
-			else if (v.shouldBeAsked(now)) {
+			else {
 				todo.add(v);
-				Log.debugWithTab("To ask: %s", v);
 			}
-			else {
-				Log.debugWithTab("Not to ask: %s", v);
+			stats.addTodo(store.getSucceededInARow(v), 1);
+		});
+		// keep database order
+		unknowns.sort();
+		todo.sort();
+		if (Log.isLevel(Log.Level.DEBUG)) {
+			for (int i = 0; i < unknowns.size(); i++) {
+				Log.debugWithTab("To ask from unknown: %s", store.get(unknowns.get(i)));
+			}
+			for (int i = 0; i < todo.size(); i++) {
+				Log.debugWithTab("To ask: %s", store.get(todo.get(i)));
 			}
 		}
+		generateTodoTime.recordSince(start);
+		todoGauge.set(stats.getTodo());
 		Log.verbose("There are %d vocs todo out of %d", todo.size(), asked_vocs.size());
 	}
 
-	private void sortList(List<Vocabulary> list) {
-		long now = System.currentTimeMillis();
-		list.sort(comparingDouble(v -> v.getRating(now)));
-		Log.debug("List sorted");
-	}
-
 	public void update() {
-		if (last_asked.isKnown()) {
-			Log.verbose("\"%s\" removed because it's known", last_asked.getWord());
+		long start = System.nanoTime();
+		dirty.set(last_asked);
+		if (!store.isUnknown(last_asked)) {
+			Log.verbose("\"%s\" removed because it's known", store.getWord(last_asked));
 			todo_now.remove(last_asked);
 			// Don't know where it came from, but keep "old" store updated for summary
-			if (!unknowns.remove(last_asked)) {
-				todo.remove(last_asked);
+			if (unknowns.remove(last_asked) || todo.remove(last_asked)) {
+				stats.addTodo(store.getSucceededInARow(last_asked), -1);
 			}
 		}
 		// move from new to asked if not new anymore
 		if (new_vocs.remove(last_asked)) {
 			asked_vocs.add(last_asked);
+			due_index.add(last_asked, dueKey(last_asked));
+			stats.addNew(-1);
+			stats.add(store.getSucceededInARow(last_asked), 1);
 		}
+		updateTime.recordSince(start);
 
 		// refill with new vocs if new vocs available
 //		while (todo_now.size() < settings.NUMBER_SIMUL_VOCS && !new_vocs.isEmpty()) {
@@ -162,35 +274,104 @@ public class VocabularyBase {
 //		}
 	}
 
+	private double dueKey(int v) {
+		return -(double) store.getDueTime(v);
+	}
+
+	private void statsChanged(int v, int old_siar) {
+		if (due_index.contains(v)) {
+			due_index.update(v, dueKey(v));
+		}
+		int siar = store.getSucceededInARow(v);
+		if (siar == old_siar) return;
+		if (asked_vocs.contains(v)) {
+			stats.add(old_siar, -1);
+			stats.add(siar, 1);
+		}
+		if (unknowns.contains(v) || todo.contains(v)) {
+			stats.addTodo(old_siar, -1);
+			stats.addTodo(siar, 1);
+		}
+	}
+
 	public Vocabulary getNextVocabulary() {
 		Log.verbose("Fetch next voc. %d vocs left.", todo_now.size());
-		if (todo_now.size() == 1) {
-			last_asked = todo_now.get(0);
-		}
-		else {
-			Log.debug("Sorting voc to do now by rating");
-			sortList(todo_now);
-			Log.debug(todo_now);
-			// get and remove highest rated
-			Vocabulary last = todo_now.get(todo_now.size() - 1);
-			if (last == last_asked) {
-				last_asked = todo_now.get(todo_now.size() - 2);
+		long start = System.nanoTime();
+		// ratings change with the time passed and have a random part, so all vocs to do now are re-rated for each
+		// question, which decays the penalty of the vocs just asked and rotates vocs of about the same rating
+		if (todo_now.isEmpty()) throw new IllegalStateException("No vocs left to ask");
+		long now = clock.millis();
+		int[] candidates = todo_now.toArray();
+		double[] ratings = new double[candidates.length];
+		store.rate(candidates, now, ratings);
+		// positions of the highest and second highest rating in one pass
+		int highest = 0;
+		int second = -1;
+		for (int i = 1; i < candidates.length; i++) {
+			if (ratings[i] > ratings[highest]) {
+				second = highest;
+				highest = i;
 			}
-			else {
-				last_asked = last;
+			else if (second < 0 || ratings[i] > ratings[second]) {
+				second = i;
 			}
 		}
-		return last_asked;
+		if (candidates[highest] == last_asked && second >= 0) {
+			// do not ask the same voc twice in a row
+			last_asked = candidates[second];
+		}
+		else {
+			last_asked = candidates[highest];
+		}
+		nextTime.recordSince(start);
+		Log.debug("Highest rated: %s", store.get(last_asked));
+		return store.get(last_asked);
+	}
+
+	/**
+	 * Marks the voc at the given index as changed since last write.
+	 *
+	 * @param index database index of the changed voc
+	 */
+	public void markDirty(int index) {
+		dirty.set(index);
+	}
+
+	/**
+	 * @return all vocs changed since last write (call to {@link #clearDirty()}) in database order
+	 */
+	public List<Vocabulary> getDirtyVocs() {
+		List<Vocabulary> res = new ArrayList<>(dirty.cardinality());
+		for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+			res.add(store.get(i));
+		}
+		return res;
+	}
+
+	public void clearDirty() {
+		dirty.clear();
+	}
+
+	public Vocabulary getLastAsked() {
+		return last_asked < 0 ? null : store.get(last_asked);
 	}
 
 	public boolean hasNextVocabulary() {
 		return !todo_now.isEmpty();
 	}
 
+	/**
+	 * @return all vocs in database order, so that {@link Vocabulary#getIndex()} stays valid after writing
+	 */
 	public List<Vocabulary> getAllVocs() {
-		ArrayList<Vocabulary> vocabularies = new ArrayList<>(asked_vocs);
-		vocabularies.addAll(new_vocs);
-		return vocabularies;
+		return store.asList();
+	}
+
+	/**
+	 * @return the store holding all vocs in database order
+	 */
+	public VocabularyStore getStore() {
+		return store;
 	}
 
 	public boolean isEmpty() {
@@ -202,22 +383,54 @@ public class VocabularyBase {
 	}
 
 	public List<Vocabulary> getAskedVocs() {
-		return asked_vocs;
+		return view(asked_vocs);
 	}
 
 	public List<Vocabulary> getNewVocs() {
-		return new_vocs;
+		return view(new_vocs);
 	}
 
 	public List<Vocabulary> getUnknowns() {
-		return unknowns;
+		return view(unknowns);
 	}
 
 	public List<Vocabulary> getTodo() {
-		return todo;
+		return view(todo);
+	}
+
+	/**
+	 * @return live counts of the vocs, the ones todo as of the last call to {@link #generateTodo()}
+	 */
+	public VocabularyStatistics getStatistics() {
+		return stats;
 	}
 
 	public boolean isNothingTodo() {
 		return todo.isEmpty() && unknowns.isEmpty();
 	}
+
+	/**
+	 * @return read-only view of the vocs at the given indices
+	 */
+	private List<Vocabulary> view(IndexedIntSet indices) {
+		return new IndexView(indices);
+	}
+
+	private final class IndexView extends AbstractList<Vocabulary> implements RandomAccess {
+		private final IndexedIntSet indices;
+
+		IndexView(IndexedIntSet indices) {
+			this.indices = indices;
+		}
+
+		@Override
+		public Vocabulary get(int index) {
+			return store.get(indices.get(index));
+		}
+
+		@Override
+		public int size() {
+			return indices.size();
+		}
+	}
 }
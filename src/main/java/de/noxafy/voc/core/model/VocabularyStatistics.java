@@ -0,0 +1,142 @@
+package de.noxafy.voc.core.model;
+
+import de.noxafy.voc.core.model.Vocabulary.KnowledgeLevel;
+
+import java.util.Arrays;
+
+/**
+ * Live counts of the vocs of a {@link VocabularyBase}, by {@link KnowledgeLevel} and succeeded in a row value, each
+ * for all asked vocs and for the ones todo. Kept up to date by the base on every change, so reading them is free.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class VocabularyStatistics {
+
+	private static final int LEVELS = KnowledgeLevel.values().length;
+
+	private int new_cnt;
+	private int asked_cnt;
+	private int todo_cnt;
+
+	private int[] siar_cnts = new int[16];
+	private int[] todo_siar_cnts = new int[16];
+	private final int[] level_cnts = new int[LEVELS];
+	private final int[] todo_level_cnts = new int[LEVELS];
+
+	VocabularyStatistics() {
+	}
+
+	/**
+	 * Creates statistics of already counted vocs, e.g. persisted ones.
+	 *
+	 * @param new_cnt        number of new vocs
+	 * @param siar_cnts      number of asked vocs per succeeded in a row value
+	 * @param todo_siar_cnts number of asked vocs todo per succeeded in a row value
+	 */
+	public VocabularyStatistics(int new_cnt, int[] siar_cnts, int[] todo_siar_cnts) {
+		addNew(new_cnt);
+		for (int siar = 0; siar < siar_cnts.length; siar++) {
+			add(siar, siar_cnts[siar]);
+		}
+		for (int siar = 0; siar < todo_siar_cnts.length; siar++) {
+			addTodo(siar, todo_siar_cnts[siar]);
+		}
+	}
+
+	void addNew(int cnt) {
+		new_cnt += cnt;
+	}
+
+	void add(int siar, int cnt) {
+		siar_cnts = ensureCapacity(siar_cnts, siar);
+		siar_cnts[siar] += cnt;
+		level_cnts[KnowledgeLevel.decide(siar).ordinal()] += cnt;
+		asked_cnt += cnt;
+	}
+
+	void addTodo(int siar, int cnt) {
+		todo_siar_cnts = ensureCapacity(todo_siar_cnts, siar);
+		todo_siar_cnts[siar] += cnt;
+		todo_level_cnts[KnowledgeLevel.decide(siar).ordinal()] += cnt;
+		todo_cnt += cnt;
+	}
+
+	void clearTodo() {
+		Arrays.fill(todo_siar_cnts, 0);
+		Arrays.fill(todo_level_cnts, 0);
+		todo_cnt = 0;
+	}
+
+	private static int[] ensureCapacity(int[] cnts, int siar) {
+		if (siar < cnts.length) return cnts;
+		return Arrays.copyOf(cnts, Math.max(cnts.length * 2, siar + 1));
+	}
+
+	public int size() {
+		return new_cnt + asked_cnt;
+	}
+
+	public int getNew() {
+		return new_cnt;
+	}
+
+	public int getAsked() {
+		return asked_cnt;
+	}
+
+	/**
+	 * @return the number of asked vocs todo, including unknown ones
+	 */
+	public int getTodo() {
+		return todo_cnt;
+	}
+
+	/**
+	 * @return the number of asked vocs not todo
+	 */
+	public int getKnown() {
+		return asked_cnt - todo_cnt;
+	}
+
+	/**
+	 * @return the number of unknown vocs, which are always todo
+	 */
+	public int getUnknown() {
+		return todo_level_cnts[KnowledgeLevel.UNKNOWN.ordinal()];
+	}
+
+	/**
+	 * @return the highest succeeded in a row value of any asked voc, 0 if there are none
+	 */
+	public int getHighestSucceededInARow() {
+		for (int siar = siar_cnts.length - 1; siar > 0; siar--) {
+			if (siar_cnts[siar] > 0) return siar;
+		}
+		return 0;
+	}
+
+	public int getAsked(int siar) {
+		return siar < siar_cnts.length ? siar_cnts[siar] : 0;
+	}
+
+	public int getTodo(int siar) {
+		return siar < todo_siar_cnts.length ? todo_siar_cnts[siar] : 0;
+	}
+
+	public int getKnown(int siar) {
+		return getAsked(siar) - getTodo(siar);
+	}
+
+	public int getAsked(KnowledgeLevel level) {
+		return level_cnts[level.ordinal()];
+	}
+
+	public int getTodo(KnowledgeLevel level) {
+		return todo_level_cnts[level.ordinal()];
+	}
+
+	public int getKnown(KnowledgeLevel level) {
+		return getAsked(level) - getTodo(level);
+	}
+}
@@ -0,0 +1,643 @@
+package de.noxafy.voc.core.model;
+
+import de.noxafy.utils.Clock;
+import de.noxafy.utils.Log;
+import de.noxafy.voc.core.model.Vocabulary.KnowledgeLevel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Column store holding the vocs of a database as primitive arrays, one entry per voc. The texts of all vocs are held as
+ * UTF-8 in one byte array, the word, meaning and mnemonic of each voc following each other, indexed by their start
+ * offsets. So the store needs a few arrays instead of several objects per voc. {@link Vocabulary} is a view onto one
+ * entry.
+ *
+ * @author noxafy
+ * @created 18.10.26
+ */
+public final class VocabularyStore {
+
+	private static final KnowledgeLevel[] LEVELS = KnowledgeLevel.values();
+	private static final int TEXTS_PER_VOC = 3;
+	private static final int WORD = 0;
+	private static final int MEANING = 1;
+	private static final int MNEMONIC = 2;
+	private static final int MAX_CAPACITY = (Integer.MAX_VALUE - 8) / TEXTS_PER_VOC;
+	// candidate sets at least this big are rated in parallel
+	private static final int PARALLEL_RATING_THRESHOLD = 1 << 16;
+	/**
+	 * Number of candidates worth {@link #rate(int[], int, long, double[]) rating} at once, as big as needed to rate
+	 * them in parallel.
+	 */
+	public static final int RATING_BLOCK_SIZE = PARALLEL_RATING_THRESHOLD;
+	// vocs asked less than this ago are rated down
+	private static final long JUST_ASKED_MILLIS = 20000;
+
+	private int size;
+	private long[] added;
+	private long[] lastAsked;
+	private int[] asked;
+	private int[] failed;
+	private int[] succeededInARow;
+	private byte[] level;
+
+	private byte[] texts;
+	// start of each text in texts, followed by the end of the last one
+	private int[] textOffsets;
+
+	// notified when stats of a voc change
+	private StatsListener listener;
+
+	// ratings of the vocs rated at ratingDate, allocated on first rating
+	private double[] rating;
+	private final BitSet rated = new BitSet();
+	private long ratingDate;
+	// random part of the ratings
+	private SplittableRandom random = new SplittableRandom();
+	// time of answers
+	private Clock clock = Clock.SYSTEM;
+
+	public VocabularyStore() {
+		this(16, 256);
+	}
+
+	/**
+	 * @param capacity     expected number of vocs
+	 * @param textCapacity expected size of all texts in UTF-8 bytes
+	 */
+	public VocabularyStore(int capacity, int textCapacity) {
+		capacity = Math.max(Math.min(capacity, MAX_CAPACITY), 1);
+		added = new long[capacity];
+		lastAsked = new long[capacity];
+		asked = new int[capacity];
+		failed = new int[capacity];
+		succeededInARow = new int[capacity];
+		level = new byte[capacity];
+		texts = new byte[Math.max(textCapacity, 16)];
+		textOffsets = new int[capacity * TEXTS_PER_VOC + 1];
+	}
+
+	/**
+	 * Creates a store using the given columns directly.
+	 *
+	 * @param textOffsets start offset of each text in <code>texts</code> (word, meaning and mnemonic of each voc in
+	 *                    order) followed by the end of the last text, see {@link #getTextOffset(int)}
+	 * @throws IllegalArgumentException if the columns do not fit together
+	 */
+	public static VocabularyStore wrap(long[] added, long[] lastAsked, int[] asked, int[] failed,
+			int[] succeededInARow, int[] textOffsets, byte[] texts) {
+		int size = added.length;
+		if (lastAsked.length != size || asked.length != size || failed.length != size
+				|| succeededInARow.length != size || textOffsets.length != size * TEXTS_PER_VOC + 1) {
+			throw new IllegalArgumentException("Columns differ in length");
+		}
+		int previous = 0;
+		for (int offset : textOffsets) {
+			if (offset < previous || offset > texts.length) {
+				throw new IllegalArgumentException("Invalid text offset: " + offset);
+			}
+			previous = offset;
+		}
+		if (textOffsets[0] != 0) {
+			throw new IllegalArgumentException("Texts have to start at 0");
+		}
+
+		VocabularyStore store = new VocabularyStore(0, 0);
+		store.size = size;
+		store.added = added;
+		store.lastAsked = lastAsked;
+		store.asked = asked;
+		store.failed = failed;
+		store.succeededInARow = succeededInARow;
+		store.level = new byte[Math.max(size, 1)];
+		for (int i = 0; i < size; i++) {
+			store.level[i] = (byte) KnowledgeLevel.decide(succeededInARow[i]).ordinal();
+		}
+		store.textOffsets = textOffsets;
+		store.texts = texts;
+		return store;
+	}
+
+	/**
+	 * @return a store with a copy of the stats of all vocs, sharing the texts as they never change once added
+	 */
+	public VocabularyStore copy() {
+		return wrap(Arrays.copyOf(added, size), Arrays.copyOf(lastAsked, size), Arrays.copyOf(asked, size),
+				Arrays.copyOf(failed, size), Arrays.copyOf(succeededInARow, size),
+				Arrays.copyOf(textOffsets, size * TEXTS_PER_VOC + 1), texts);
+	}
+
+	/**
+	 * Adds a voc to the end of the store.
+	 *
+	 * @return index of the new voc
+	 */
+	public int add(String word, String meaning, String mnemonic, long added, long lastAsked, int asked, int failed,
+			int succeeded_in_a_row) {
+		int index = addStats(added, lastAsked, asked, failed, succeeded_in_a_row);
+		int base = index * TEXTS_PER_VOC;
+		appendText(base + WORD, word.getBytes(StandardCharsets.UTF_8));
+		appendText(base + MEANING, meaning.getBytes(StandardCharsets.UTF_8));
+		appendText(base + MNEMONIC, mnemonic.getBytes(StandardCharsets.UTF_8));
+		return index;
+	}
+
+	/**
+	 * Adds a voc to the end of the store, copying its texts from the given UTF-8 encoded ranges of <code>src</code>
+	 * without decoding them. The position of <code>src</code> is not changed.
+	 *
+	 * @return index of the new voc
+	 */
+	public int add(ByteBuffer src, int wordFrom, int wordTo, int meaningFrom, int meaningTo, int mnemonicFrom,
+			int mnemonicTo, long added, long lastAsked, int asked, int failed, int succeeded_in_a_row) {
+		int index = addStats(added, lastAsked, asked, failed, succeeded_in_a_row);
+		int base = index * TEXTS_PER_VOC;
+		appendText(base + WORD, src, wordFrom, wordTo);
+		appendText(base + MEANING, src, meaningFrom, meaningTo);
+		appendText(base + MNEMONIC, src, mnemonicFrom, mnemonicTo);
+		return index;
+	}
+
+	/**
+	 * Appends all vocs of the given store in their order.
+	 */
+	public void addAll(VocabularyStore other) {
+		int newSize = size + other.size;
+		ensureCapacity(newSize);
+		System.arraycopy(other.added, 0, added, size, other.size);
+		System.arraycopy(other.lastAsked, 0, lastAsked, size, other.size);
+		System.arraycopy(other.asked, 0, asked, size, other.size);
+		System.arraycopy(other.failed, 0, failed, size, other.size);
+		System.arraycopy(other.succeededInARow, 0, succeededInARow, size, other.size);
+		System.arraycopy(other.level, 0, level, size, other.size);
+
+		int textStart = textOffsets[size * TEXTS_PER_VOC];
+		int otherTextLength = other.textOffsets[other.size * TEXTS_PER_VOC];
+		ensureTextCapacity((long) textStart + otherTextLength);
+		System.arraycopy(other.texts, 0, texts, textStart, otherTextLength);
+		for (int k = 1; k <= other.size * TEXTS_PER_VOC; k++) {
+			textOffsets[size * TEXTS_PER_VOC + k] = textStart + other.textOffsets[k];
+		}
+		size = newSize;
+	}
+
+	private int addStats(long added, long lastAsked, int asked, int failed, int succeeded_in_a_row) {
+		int index = size;
+		ensureCapacity(index + 1);
+		this.added[index] = added;
+		this.lastAsked[index] = lastAsked;
+		this.asked[index] = asked;
+		this.failed[index] = failed;
+		this.succeededInARow[index] = succeeded_in_a_row;
+		this.level[index] = (byte) KnowledgeLevel.decide(succeeded_in_a_row).ordinal();
+		size++;
+		return index;
+	}
+
+	private void appendText(int k, byte[] text) {
+		int start = textOffsets[k];
+		ensureTextCapacity((long) start + text.length);
+		System.arraycopy(text, 0, texts, start, text.length);
+		textOffsets[k + 1] = start + text.length;
+	}
+
+	private void appendText(int k, ByteBuffer src, int from, int to) {
+		int start = textOffsets[k];
+		int length = to - from;
+		ensureTextCapacity((long) start + length);
+		if (src.hasArray()) {
+			System.arraycopy(src.array(), src.arrayOffset() + from, texts, start, length);
+		}
+		else {
+			for (int i = 0; i < length; i++) {
+				texts[start + i] = src.get(from + i);
+			}
+		}
+		textOffsets[k + 1] = start + length;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= added.length) return;
+		int newCapacity = (int) Math.min(Math.max(capacity, added.length + (added.length >> 1) + 1L), MAX_CAPACITY);
+		if (newCapacity < capacity) {
+			throw new IllegalStateException("Too many vocs: " + capacity);
+		}
+		added = Arrays.copyOf(added, newCapacity);
+		lastAsked = Arrays.copyOf(lastAsked, newCapacity);
+		asked = Arrays.copyOf(asked, newCapacity);
+		failed = Arrays.copyOf(failed, newCapacity);
+		succeededInARow = Arrays.copyOf(succeededInARow, newCapacity);
+		level = Arrays.copyOf(level, newCapacity);
+		textOffsets = Arrays.copyOf(textOffsets, newCapacity * TEXTS_PER_VOC + 1);
+		if (rating != null) {
+			rating = Arrays.copyOf(rating, newCapacity);
+		}
+	}
+
+	private void ensureTextCapacity(long capacity) {
+		if (capacity <= texts.length) return;
+		if (capacity > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Texts of vocs exceed " + (Integer.MAX_VALUE - 8) + " bytes");
+		}
+		texts = Arrays.copyOf(texts, (int) Math.min(Math.max(capacity, texts.length + (texts.length >> 1) + 1L),
+				Integer.MAX_VALUE - 8));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return a view onto the voc at the given index
+	 */
+	public Vocabulary get(int index) {
+		checkIndex(index);
+		return new Vocabulary(this, index);
+	}
+
+	/**
+	 * @return views onto all vocs in store order
+	 */
+	public List<Vocabulary> asList() {
+		return new View();
+	}
+
+	public String getWord(int index) {
+		return getText(index, WORD);
+	}
+
+	public String getMeaning(int index) {
+		return getText(index, MEANING);
+	}
+
+	public String getMnemonic(int index) {
+		return getText(index, MNEMONIC);
+	}
+
+	private String getText(int index, int field) {
+		checkIndex(index);
+		int k = index * TEXTS_PER_VOC + field;
+		return new String(texts, textOffsets[k], textOffsets[k + 1] - textOffsets[k], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return all texts as UTF-8 in store order, the word, meaning and mnemonic of each voc following each other
+	 */
+	public ByteBuffer getTexts() {
+		return ByteBuffer.wrap(texts, 0, textOffsets[size * TEXTS_PER_VOC]).slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * @param k number of the text counted over all vocs, i.e. <code>3 * index</code> for the word, <code>+ 1</code>
+	 *          for the meaning and <code>+ 2</code> for the mnemonic of a voc, up to <code>3 * size()</code> for the
+	 *          end of the last text
+	 * @return start of the text in {@link #getTexts()}
+	 */
+	public int getTextOffset(int k) {
+		if (k < 0 || k > size * TEXTS_PER_VOC) {
+			throw new IndexOutOfBoundsException("Text: " + k + ", Texts: " + size * TEXTS_PER_VOC);
+		}
+		return textOffsets[k];
+	}
+
+	public long getAdded(int index) {
+		checkIndex(index);
+		return added[index];
+	}
+
+	public long getLastAsked(int index) {
+		checkIndex(index);
+		return lastAsked[index];
+	}
+
+	public int getAsked(int index) {
+		checkIndex(index);
+		return asked[index];
+	}
+
+	public int getFailed(int index) {
+		checkIndex(index);
+		return failed[index];
+	}
+
+	public int getSucceededInARow(int index) {
+		checkIndex(index);
+		return succeededInARow[index];
+	}
+
+	public KnowledgeLevel getLevel(int index) {
+		checkIndex(index);
+		return LEVELS[level[index]];
+	}
+
+	public boolean isNew(int index) {
+		checkIndex(index);
+		return asked[index] < 3 && succeededInARow[index] < 1;
+	}
+
+	public boolean isUnknown(int index) {
+		checkIndex(index);
+		return level[index] == KnowledgeLevel.UNKNOWN.ordinal();
+	}
+
+	/**
+	 * Overwrites the stats of the voc at the given index, e.g. with stats recorded elsewhere.
+	 */
+	public void setStats(int index, long lastAsked, int asked, int failed, int succeeded_in_a_row) {
+		checkIndex(index);
+		int old_siar = succeededInARow[index];
+		this.lastAsked[index] = lastAsked;
+		this.asked[index] = asked;
+		this.failed[index] = failed;
+		this.succeededInARow[index] = succeeded_in_a_row;
+		this.level[index] = (byte) KnowledgeLevel.decide(succeeded_in_a_row).ordinal();
+		rated.clear(index);
+		statsChanged(index, old_siar);
+	}
+
+	public void succeeded(int index) {
+		checkIndex(index);
+		int old_siar = succeededInARow[index]++;
+		level[index] = (byte) KnowledgeLevel.decide(succeededInARow[index]).ordinal();
+		asked(index, old_siar);
+	}
+
+	public void failed(int index) {
+		checkIndex(index);
+		int old_siar = succeededInARow[index];
+		succeededInARow[index] = Math.max(old_siar - 3, 0);
+		level[index] = (byte) KnowledgeLevel.decide(succeededInARow[index]).ordinal();
+		failed[index]++;
+		asked(index, old_siar);
+	}
+
+	private void asked(int index, int old_siar) {
+		asked[index]++;
+		lastAsked[index] = clock.millis();
+		statsChanged(index, old_siar);
+	}
+
+	private void statsChanged(int index, int old_siar) {
+		if (listener != null) {
+			listener.statsChanged(index, old_siar);
+		}
+	}
+
+	/**
+	 * @param clock gives the time vocs are asked at
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * @param random source of the random part of ratings
+	 */
+	public void setRandom(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * @return the latest date any voc was added or asked at, 0 if there are none
+	 */
+	public long getLatestTimestamp() {
+		long latest = 0;
+		for (int i = 0; i < size; i++) {
+			latest = Math.max(latest, Math.max(added[i], lastAsked[i]));
+		}
+		return latest;
+	}
+
+	/**
+	 * Sets the listener to be notified when the stats of a voc change, replacing any previous one.
+	 */
+	public void setStatsListener(StatsListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Rates the voc at the given index. The rating is calculated once per voc and <code>now</code>.
+	 */
+	public double getRating(int index, long now) {
+		checkIndex(index);
+		if (now != ratingDate) {
+			ratingDate = now;
+			rated.clear();
+		}
+		if (rating == null) {
+			rating = new double[added.length];
+		}
+		if (!rated.get(index)) {
+			rated.set(index);
+			rating[index] = rate(index, now);
+		}
+		return rating[index];
+	}
+
+	/**
+	 * @return the last rating of the voc at the given index or 0 if not rated yet
+	 */
+	double getLastRating(int index) {
+		return rating == null ? 0 : rating[index];
+	}
+
+	private double rate(int index, long now) {
+		double random = this.random.nextDouble() * 3;
+		double rating = rate(index, now, random);
+		if (Log.isLevel(Log.Level.DEBUG)) {
+			logRating(index, now, random, rating);
+		}
+		return rating;
+	}
+
+	/**
+	 * Rates the given candidates in one go without caching the ratings. Big candidate sets are rated in parallel.
+	 *
+	 * @param candidates indices of the vocs to be rated
+	 * @param now        the current time
+	 * @param ratings    filled with the rating of each candidate at the same position
+	 */
+	public void rate(int[] candidates, long now, double[] ratings) {
+		rate(candidates, candidates.length, now, ratings);
+	}
+
+	/**
+	 * Rates the first <code>count</code> of the given candidates, e.g. a block of a candidate stream.
+	 *
+	 * @see #rate(int[], long, double[])
+	 */
+	public void rate(int[] candidates, int count, long now, double[] ratings) {
+		if (Log.isLevel(Log.Level.DEBUG)) {
+			// slow path logging each rating
+			for (int i = 0; i < count; i++) {
+				int index = candidates[i];
+				checkIndex(index);
+				double random = this.random.nextDouble() * 3;
+				ratings[i] = rate(index, now, random);
+				logRating(index, now, random, ratings[i]);
+			}
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			checkIndex(candidates[i]);
+		}
+		if (count < PARALLEL_RATING_THRESHOLD) {
+			rate(candidates, 0, count, now, ratings, random);
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(new RatingTask(candidates, 0, count, now, ratings, random.split()));
+		}
+	}
+
+	private void rate(int[] candidates, int from, int to, long now, double[] ratings, SplittableRandom random) {
+		for (int i = from; i < to; i++) {
+			ratings[i] = rate(candidates[i], now, random.nextDouble() * 3);
+		}
+	}
+
+	private double rate(int index, long now, double random) {
+		// failRate weighted 3 times
+		// 57% via heuristics, 43% random
+		return 3 * getFailRate(index) + getTimePassedRating(index, now) + random;
+	}
+
+	/**
+	 * @return 0 ... 1 for number of fails
+	 */
+	private double getFailRate(int index) {
+		int succeeded_in_a_row = succeededInARow[index];
+		double failRate = (asked[index] < 3 && succeeded_in_a_row < 1) ? 0.5 : failed[index] / (double) asked[index];
+		if (succeeded_in_a_row > 2) {
+			failRate /= succeeded_in_a_row - 2;
+		}
+		return failRate;
+	}
+
+	/**
+	 * @return (-20000 ...) 0 ... 1 for time passed since last asked
+	 */
+	private double getTimePassedRating(int index, long now) {
+		// never asked vocs should be asked, so default to 1
+		if (lastAsked[index] == 0) return 1;
+
+		long forgot50percents = 43200000; // half day
+		long time_passed = now - lastAsked[index];
+		// prevent div 0 error
+		time_passed++;
+		double time_passed_rating = -forgot50percents / (double) (time_passed + forgot50percents) + 1;
+		// rate just asked vocs very bad
+		if (time_passed < JUST_ASKED_MILLIS) {
+			time_passed_rating -= (double) JUST_ASKED_MILLIS / time_passed - 1;
+		}
+		return time_passed_rating;
+	}
+
+	private void logRating(int index, long now, double random, double rating) {
+		String word = getWord(index);
+		StringBuilder tabs = new StringBuilder();
+		for (int wlength = word.length() + 17; wlength < 48; wlength += 8) {
+			tabs.append("\t");
+		}
+		Log.debugWithTab(
+				"Rated \"%s\":%slevel = %s, failR = %.2f, tpr = %.2f, rnd = %.2f -> rating = %.2f",
+				word, tabs, getLevel(index), 3 * getFailRate(index), getTimePassedRating(index, now), random, rating
+		);
+	}
+
+	public boolean shouldBeAsked(int index, long now) {
+		return now > getDueTime(index);
+	}
+
+	/**
+	 * @return the time after which the voc at the given index should be asked again, {@link Long#MIN_VALUE} if it
+	 * should always be asked
+	 */
+	public long getDueTime(int index) {
+		KnowledgeLevel level = getLevel(index);
+		switch (level) {
+			case UNKNOWN:
+				return Long.MIN_VALUE;
+			case LEVEL1:
+				return lastAsked[index] + 86400000L; // 1 day
+			case LEVEL2:
+				return lastAsked[index] + 259200000L; // 3 days
+			case LEVEL3:
+				return lastAsked[index] + 604800000L; // 7 days
+			case LEVEL4:
+				return lastAsked[index] + 7862400000L; // 3 months
+			case LEVEL5:
+				return lastAsked[index] + 31536000000L; // 1 year
+			default:
+				throw new IllegalArgumentException("Unknown level: " + level + " for " + get(index));
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	public interface StatsListener {
+		/**
+		 * Called after the stats of the voc at the given index changed.
+		 *
+		 * @param oldSucceededInARow succeeded in a row count of the voc before the change
+		 */
+		void statsChanged(int index, int oldSucceededInARow);
+	}
+
+	private final class RatingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] candidates;
+		private final int from;
+		private final int to;
+		private final long now;
+		private final double[] ratings;
+		private final SplittableRandom random;
+
+		RatingTask(int[] candidates, int from, int to, long now, double[] ratings, SplittableRandom random) {
+			this.candidates = candidates;
+			this.from = from;
+			this.to = to;
+			this.now = now;
+			this.ratings = ratings;
+			this.random = random;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from < PARALLEL_RATING_THRESHOLD) {
+				rate(candidates, from, to, now, ratings, random);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			// split before forking, so the random numbers do not depend on scheduling
+			RatingTask first = new RatingTask(candidates, from, mid, now, ratings, random.split());
+			RatingTask second = new RatingTask(candidates, mid, to, now, ratings, random.split());
+			invokeAll(first, second);
+		}
+	}
+
+	private final class View extends AbstractList<Vocabulary> implements RandomAccess {
+		@Override
+		public Vocabulary get(int index) {
+			return VocabularyStore.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
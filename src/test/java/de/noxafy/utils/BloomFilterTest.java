@@ -0,0 +1,84 @@
+package de.noxafy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class BloomFilterTest {
+
+	@Test
+	void containsAddedHashes() {
+		BloomFilter bloom = new BloomFilter(1000);
+		for (long key = 0; key < 1000; key++) {
+			bloom.add(BloomFilter.mix(key));
+		}
+		for (long key = 0; key < 1000; key++) {
+			assertTrue(bloom.mightContain(BloomFilter.mix(key)));
+		}
+		assertEquals(1000, bloom.size());
+	}
+
+	@Test
+	void falsePositiveRateHolds() {
+		BloomFilter bloom = new BloomFilter(10000);
+		for (long key = 0; key < bloom.getCapacity(); key++) {
+			bloom.add(BloomFilter.mix(key));
+		}
+		int falsePositives = 0;
+		for (long key = -1; key >= -100000; key--) {
+			if (bloom.mightContain(BloomFilter.mix(key))) falsePositives++;
+		}
+		assertTrue(falsePositives < 2000, falsePositives + " false positives");
+	}
+
+	@Test
+	void readsWhatWasWritten() {
+		BloomFilter bloom = new BloomFilter(100);
+		bloom.add(BloomFilter.mix(1));
+		bloom.add(BloomFilter.mix(2));
+		ByteBuffer data = ByteBuffer.allocate(bloom.getSerializedSize());
+		bloom.write(data);
+		assertFalse(data.hasRemaining());
+		data.flip();
+
+		BloomFilter read = BloomFilter.read(data);
+		assertEquals(2, read.size());
+		assertEquals(bloom.getCapacity(), read.getCapacity());
+		assertTrue(read.mightContain(BloomFilter.mix(1)));
+		assertTrue(read.mightContain(BloomFilter.mix(2)));
+		assertFalse(data.hasRemaining());
+	}
+
+	@Test
+	void lengthBeyondDataIsRejectedBeforeAllocating() {
+		// would need 16 GiB if allocated
+		ByteBuffer data = ByteBuffer.allocate(8 + 4 + 64);
+		data.putLong(0).putInt(1 << 30).flip();
+		data.limit(data.capacity());
+		assertThrows(IllegalArgumentException.class, () -> BloomFilter.read(data));
+	}
+
+	@Test
+	void invalidLengthIsRejected() {
+		for (int length : new int[]{0, -8, 3}) {
+			ByteBuffer data = ByteBuffer.allocate(8 + 4 + 64);
+			data.putLong(0).putInt(length).rewind();
+			assertThrows(IllegalArgumentException.class, () -> BloomFilter.read(data), "Length " + length);
+		}
+	}
+
+	@Test
+	void truncatedDataIsRejected() {
+		ByteBuffer data = ByteBuffer.allocate(6);
+		assertThrows(IllegalArgumentException.class, () -> BloomFilter.read(data));
+	}
+}
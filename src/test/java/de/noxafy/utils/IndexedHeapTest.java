@@ -0,0 +1,155 @@
+package de.noxafy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class IndexedHeapTest {
+
+	@Test
+	void peekReturnsHighestKey() {
+		IndexedHeap heap = new IndexedHeap(10);
+		heap.add(3, 1.0);
+		heap.add(7, 5.0);
+		heap.add(1, 2.0);
+		assertEquals(7, heap.peek());
+		assertEquals(3, heap.size());
+	}
+
+	@Test
+	void addChangesKeyOfContainedId() {
+		IndexedHeap heap = new IndexedHeap(10);
+		heap.add(3, 1.0);
+		heap.add(7, 5.0);
+		heap.add(3, 9.0);
+		assertEquals(3, heap.peek());
+		assertEquals(2, heap.size());
+		assertEquals(9.0, heap.getKey(3));
+	}
+
+	@Test
+	void updateMovesIdUpAndDown() {
+		IndexedHeap heap = new IndexedHeap(10);
+		for (int id = 0; id < 10; id++) {
+			heap.add(id, id);
+		}
+		heap.update(0, 100);
+		assertEquals(0, heap.peek());
+		heap.update(0, -1);
+		assertEquals(9, heap.peek());
+		assertEquals(-1.0, heap.getKey(0));
+		assertEquals(0, drain(heap).get(9).intValue());
+	}
+
+	@Test
+	void updateOfMissingIdFails() {
+		IndexedHeap heap = new IndexedHeap(10);
+		assertThrows(IllegalArgumentException.class, () -> heap.update(4, 1.0));
+	}
+
+	@Test
+	void removeKeepsHeapOrder() {
+		IndexedHeap heap = new IndexedHeap(100);
+		Random random = new Random(42);
+		for (int id = 0; id < 100; id++) {
+			heap.add(id, random.nextDouble());
+		}
+		for (int id = 0; id < 100; id += 3) {
+			assertTrue(heap.remove(id));
+		}
+		assertFalse(heap.remove(0));
+		assertFalse(heap.contains(3));
+		assertTrue(heap.contains(4));
+
+		List<Integer> drained = drain(heap);
+		assertEquals(66, drained.size());
+		for (int id : drained) {
+			assertTrue(id % 3 != 0);
+		}
+	}
+
+	@Test
+	void removeLastId() {
+		IndexedHeap heap = new IndexedHeap(10);
+		heap.add(1, 1.0);
+		heap.add(2, 2.0);
+		assertTrue(heap.remove(1));
+		assertEquals(2, heap.peek());
+		assertTrue(heap.remove(2));
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void peekSecondReturnsSecondHighestKey() {
+		IndexedHeap heap = new IndexedHeap(10);
+		heap.add(1, 1.0);
+		heap.add(2, 2.0);
+		assertEquals(1, heap.peekSecond());
+		heap.add(3, 3.0);
+		assertEquals(2, heap.peekSecond());
+		heap.update(1, 2.5);
+		assertEquals(1, heap.peekSecond());
+		heap.remove(3);
+		assertEquals(2, heap.peekSecond());
+	}
+
+	@Test
+	void peekSecondMatchesDrainOrder() {
+		Random random = new Random(7);
+		for (int n = 2; n < 50; n++) {
+			IndexedHeap heap = new IndexedHeap(n);
+			for (int id = 0; id < n; id++) {
+				heap.add(id, random.nextInt(10));
+			}
+			int second = heap.peekSecond();
+			heap.remove(heap.peek());
+			assertEquals(heap.getKey(heap.peek()), heap.getKey(second));
+		}
+	}
+
+	@Test
+	void peekOnTooSmallHeapFails() {
+		IndexedHeap heap = new IndexedHeap(10);
+		assertThrows(IllegalStateException.class, heap::peek);
+		heap.add(1, 1.0);
+		assertThrows(IllegalStateException.class, heap::peekSecond);
+	}
+
+	@Test
+	void forEachAboveVisitsIdsAboveThreshold() {
+		IndexedHeap heap = new IndexedHeap(20);
+		for (int id = 0; id < 20; id++) {
+			heap.add(id, id);
+		}
+		List<Integer> above = new ArrayList<>();
+		heap.forEachAbove(14.5, above::add);
+		above.sort(null);
+		assertEquals(Arrays.asList(15, 16, 17, 18, 19), above);
+	}
+
+	private static List<Integer> drain(IndexedHeap heap) {
+		List<Integer> ids = new ArrayList<>();
+		double previous = Double.POSITIVE_INFINITY;
+		while (!heap.isEmpty()) {
+			int id = heap.peek();
+			double key = heap.getKey(id);
+			assertTrue(key <= previous, "Keys not in descending order");
+			previous = key;
+			ids.add(id);
+			heap.remove(id);
+		}
+		return ids;
+	}
+}
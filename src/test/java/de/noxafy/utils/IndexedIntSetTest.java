@@ -0,0 +1,100 @@
+package de.noxafy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class IndexedIntSetTest {
+
+	@Test
+	void addAndRemove() {
+		IndexedIntSet set = new IndexedIntSet(10);
+		assertTrue(set.add(4));
+		assertTrue(set.add(2));
+		assertFalse(set.add(4));
+		assertEquals(2, set.size());
+		assertTrue(set.contains(4));
+		assertFalse(set.contains(5));
+
+		assertTrue(set.remove(4));
+		assertFalse(set.remove(4));
+		assertFalse(set.contains(4));
+		assertTrue(set.contains(2));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	void containsIsFalseOutsideUniverse() {
+		IndexedIntSet set = new IndexedIntSet(3);
+		assertFalse(set.contains(-1));
+		assertFalse(set.contains(3));
+	}
+
+	@Test
+	void removeMovesLastIdIntoGap() {
+		IndexedIntSet set = new IndexedIntSet(10);
+		set.add(1);
+		set.add(2);
+		set.add(3);
+		set.remove(1);
+		assertArrayEquals(new int[]{3, 2}, set.toArray());
+		assertTrue(set.contains(3));
+		assertTrue(set.remove(3));
+		assertArrayEquals(new int[]{2}, set.toArray());
+	}
+
+	@Test
+	void setsSharingPositionsStayDisjoint() {
+		int[] positions = IndexedIntSet.newPositions(10);
+		IndexedIntSet first = new IndexedIntSet(positions);
+		IndexedIntSet second = new IndexedIntSet(positions);
+		first.add(1);
+		first.add(2);
+		second.add(3);
+
+		// position 0 of id 3 is valid in first too, but holds another id there
+		assertFalse(first.contains(3));
+		assertFalse(second.contains(1));
+
+		// move an id from one set to the other
+		first.remove(1);
+		second.add(1);
+		assertTrue(second.contains(1));
+		assertFalse(first.contains(1));
+		assertTrue(first.contains(2));
+		assertArrayEquals(new int[]{2}, first.toArray());
+		assertArrayEquals(new int[]{3, 1}, second.toArray());
+	}
+
+	@Test
+	void sortKeepsPositions() {
+		IndexedIntSet set = new IndexedIntSet(10);
+		set.add(7);
+		set.add(3);
+		set.add(5);
+		set.sort();
+		assertArrayEquals(new int[]{3, 5, 7}, set.toArray());
+		assertTrue(set.remove(3));
+		assertArrayEquals(new int[]{7, 5}, set.toArray());
+		assertTrue(set.contains(5));
+		assertTrue(set.contains(7));
+	}
+
+	@Test
+	void clearRemovesAll() {
+		IndexedIntSet set = new IndexedIntSet(10);
+		set.add(1);
+		set.add(2);
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(1));
+		assertTrue(set.add(1));
+	}
+}
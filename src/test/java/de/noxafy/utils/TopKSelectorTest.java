@@ -0,0 +1,71 @@
+package de.noxafy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class TopKSelectorTest {
+
+	@Test
+	void selectsHighestKeysFirst() {
+		TopKSelector selector = new TopKSelector(3);
+		double[] keys = {5, 1, 9, 3, 7, 2};
+		for (int id = 0; id < keys.length; id++) {
+			selector.offer(id, keys[id]);
+		}
+		assertArrayEquals(new int[]{2, 4, 0}, selector.getSelected().toArray());
+		assertArrayEquals(new double[]{9, 7, 5}, selector.getSelectedKeys());
+	}
+
+	@Test
+	void selectsAllOfFewerCandidates() {
+		TopKSelector selector = new TopKSelector(5);
+		selector.offer(1, 1.0);
+		selector.offer(2, 2.0);
+		assertArrayEquals(new int[]{2, 1}, selector.getSelected().toArray());
+	}
+
+	@Test
+	void streamedSelectionMatchesOffered() {
+		Random random = new Random(3);
+		double[] keys = new double[1000];
+		for (int id = 0; id < keys.length; id++) {
+			keys[id] = random.nextDouble();
+		}
+		TopKSelector offered = new TopKSelector(20);
+		for (int id = 0; id < keys.length; id++) {
+			offered.offer(id, keys[id]);
+		}
+
+		int[] keyed = {0};
+		IntList streamed = TopKSelector.select(20, consumer -> {
+			for (int id = 0; id < keys.length; id++) {
+				consumer.accept(id);
+			}
+		}, 64, (ids, count, blockKeys) -> {
+			assertTrue(count <= 64);
+			for (int i = 0; i < count; i++) {
+				blockKeys[i] = keys[ids[i]];
+			}
+			keyed[0] += count;
+		});
+		assertArrayEquals(offered.getSelected().toArray(), streamed.toArray());
+		assertEquals(keys.length, keyed[0]);
+	}
+
+	@Test
+	void streamedSelectionOfNoneKeysNothing() {
+		IntList selected = TopKSelector.select(0, consumer -> consumer.accept(1), 8, (ids, count, keys) -> {
+			throw new AssertionError("keyed");
+		});
+		assertTrue(selected.isEmpty());
+	}
+}
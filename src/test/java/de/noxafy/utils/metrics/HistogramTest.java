@@ -0,0 +1,76 @@
+package de.noxafy.utils.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class HistogramTest {
+
+	@Test
+	void smallValuesHaveOwnBuckets() {
+		for (int value = 0; value < 128; value++) {
+			assertEquals(value, Histogram.indexOf(value));
+			assertEquals(value, Histogram.highestValueOf(value));
+		}
+	}
+
+	@Test
+	void bucketsAreContiguousOverAllLongs() {
+		int last = Histogram.indexOf(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, Histogram.highestValueOf(last));
+		for (int i = 0; i < last; i++) {
+			long highest = Histogram.highestValueOf(i);
+			assertEquals(i, Histogram.indexOf(highest));
+			assertEquals(i + 1, Histogram.indexOf(highest + 1));
+		}
+	}
+
+	@Test
+	void bucketsHoldRelativePrecision() {
+		int last = Histogram.indexOf(Long.MAX_VALUE);
+		for (int i = 128; i <= last; i++) {
+			long lowest = Histogram.highestValueOf(i - 1) + 1;
+			long highest = Histogram.highestValueOf(i);
+			assertTrue((double) (highest - lowest) / lowest <= 1.0 / 64, "Bucket " + i + " too wide");
+		}
+	}
+
+	@Test
+	void percentileIsUpperBoundWithinPrecision() {
+		Histogram histogram = new Histogram();
+		for (int value = 1; value <= 100000; value++) {
+			histogram.record(value);
+		}
+		for (double percentile : new double[]{1, 25, 50, 90, 99, 99.9}) {
+			long exact = (long) Math.ceil(percentile / 100 * 100000);
+			long value = histogram.getValueAtPercentile(percentile);
+			assertTrue(value >= exact, percentile + ": " + value + " < " + exact);
+			assertTrue(value <= exact * 1.016, percentile + ": " + value + " > " + exact);
+		}
+		assertEquals(100000, histogram.getValueAtPercentile(100));
+		assertEquals(1, histogram.getValueAtPercentile(0));
+	}
+
+	@Test
+	void percentileOfEmptyHistogramIsZero() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getMin());
+	}
+
+	@Test
+	void negativeValuesAreRecordedAsZero() {
+		Histogram histogram = new Histogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+	}
+}
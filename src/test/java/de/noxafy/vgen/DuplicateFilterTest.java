@@ -0,0 +1,131 @@
+package de.noxafy.vgen;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class DuplicateFilterTest {
+
+	private static final String FIRST = "\"house\",\"Haus\",\"\",\"1500000000000\",\"0000000000000\",\"00000\",\"00000\",\"000\"";
+	private static final String LAST = "\"tree\",\"Baum\",\"\",\"1500000000000\",\"0000000000000\",\"00000\",\"00000\",\"000\"";
+
+	private File dir;
+	private File deck;
+
+	@BeforeEach
+	void createDeck() throws IOException {
+		dir = Files.createTempDirectory("vgen").toFile();
+		deck = new File(dir, "deck.csv");
+		write(FIRST + "\n" + LAST + "\n");
+	}
+
+	@AfterEach
+	void deleteDeck() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	void findsVocsOfDeckAndImportedOnes() throws IOException {
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key(" House ", "HAUS")));
+			assertFalse(duplicates.isDuplicate(DuplicateFilter.key("car", "Auto")));
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("car", "Auto")));
+		}
+	}
+
+	@Test
+	void savedFilterIsReadForSameDeck() throws IOException {
+		saveFilter();
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNotNull(duplicates.read());
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("tree", "Baum")));
+		}
+	}
+
+	@Test
+	void stampSurvivesStatsPatchedInPlace() throws IOException {
+		saveFilter();
+		String patched = LAST.replace("\"00000\",\"00000\",\"000\"", "\"00003\",\"00001\",\"002\"");
+		write(FIRST + "\n" + patched + "\n");
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNotNull(duplicates.read());
+		}
+	}
+
+	@Test
+	void stampRejectsAppendedLine() throws IOException {
+		saveFilter();
+		Files.write(deck.toPath(), "\"car\",\"Auto\"\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNull(duplicates.read());
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("car", "Auto")));
+		}
+	}
+
+	@Test
+	void stampRejectsReplacedLastLineOfSameLength() throws IOException {
+		saveFilter();
+		write(FIRST + "\n" + LAST.replace("tree", "bush") + "\n");
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNull(duplicates.read());
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("bush", "Baum")));
+		}
+	}
+
+	@Test
+	void filterOfMissingDeckIsIgnored() throws IOException {
+		saveFilter();
+		assertTrue(deck.delete());
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNull(duplicates.read());
+		}
+	}
+
+	@Test
+	void corruptFilterLengthIsIgnored() throws IOException {
+		saveFilter();
+		File bloom = new File(deck.getPath() + ".bloom");
+		try (RandomAccessFile file = new RandomAccessFile(bloom, "rw")) {
+			// number of words after the header and the number of keys
+			file.seek(4 + 4 + 8 + 8 + 8);
+			file.writeInt(1 << 30);
+		}
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertNull(duplicates.read());
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("house", "Haus")));
+		}
+	}
+
+	private void saveFilter() throws IOException {
+		try (DuplicateFilter duplicates = new DuplicateFilter(deck)) {
+			assertTrue(duplicates.isDuplicate(DuplicateFilter.key("house", "Haus")));
+			duplicates.save();
+		}
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(deck.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,135 @@
+package de.noxafy.voc.core.fileManager;
+
+import de.noxafy.voc.core.model.Vocabulary;
+import de.noxafy.voc.core.model.VocabularyStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author noxafy
+ * @created 18.10.26
+ */
+class AnswerJournalTest {
+
+	private File dir;
+	private File database;
+
+	@BeforeEach
+	void createDatabase() throws IOException {
+		dir = Files.createTempDirectory("voc").toFile();
+		database = new File(dir, "deck.csv");
+		Files.write(database.toPath(), "\"house\",\"Haus\"\n\"tree\",\"Baum\"\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@AfterEach
+	void deleteDatabase() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	void replaysRecordsOfSameDatabase() throws IOException {
+		VocabularyStore answered = newStore();
+		Vocabulary tree = answered.get(1);
+		tree.succeeded();
+		appendRecords(tree);
+
+		VocabularyStore loaded = newStore();
+		BitSet replayed = new AnswerJournal(database).replay(loaded, database);
+		assertEquals(1, replayed.cardinality());
+		assertTrue(replayed.get(1));
+		assertEquals(tree.getLastAsked(), loaded.getLastAsked(1));
+		assertEquals(1, loaded.getAsked(1));
+		assertEquals(1, loaded.getSucceededInARow(1));
+		assertEquals(0, loaded.getAsked(0));
+	}
+
+	@Test
+	void lastRecordOfVocWins() throws IOException {
+		VocabularyStore answered = newStore();
+		Vocabulary house = answered.get(0);
+		house.succeeded();
+		byte[] first = AnswerJournal.record(house);
+		house.failed();
+		appendRecords(first, AnswerJournal.record(house));
+
+		VocabularyStore loaded = newStore();
+		new AnswerJournal(database).replay(loaded, database);
+		assertEquals(2, loaded.getAsked(0));
+		assertEquals(1, loaded.getFailed(0));
+		assertEquals(0, loaded.getSucceededInARow(0));
+	}
+
+	@Test
+	void discardsJournalOfChangedDatabase() throws IOException {
+		Vocabulary tree = newStore().get(1);
+		tree.succeeded();
+		AnswerJournal journal = appendRecords(tree);
+
+		Files.write(database.toPath(), "\"car\",\"Auto\"\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		VocabularyStore loaded = newStore();
+		BitSet replayed = new AnswerJournal(database).replay(loaded, database);
+		assertTrue(replayed.isEmpty());
+		assertEquals(0, loaded.getAsked(1));
+		assertEquals(0, loaded.getLastAsked(1));
+		assertFalse(journal.getFile().exists());
+	}
+
+	@Test
+	void ignoresIncompleteTrailingRecord() throws IOException {
+		Vocabulary tree = newStore().get(1);
+		tree.succeeded();
+		byte[] record = AnswerJournal.record(tree);
+		byte[] torn = new byte[AnswerJournal.RECORD_SIZE - 3];
+		System.arraycopy(record, 0, torn, 0, torn.length);
+		appendRecords(record, torn);
+
+		VocabularyStore loaded = newStore();
+		BitSet replayed = new AnswerJournal(database).replay(loaded, database);
+		assertEquals(1, replayed.cardinality());
+		assertEquals(1, loaded.getAsked(1));
+	}
+
+	@Test
+	void missingJournalReplaysNothing() {
+		VocabularyStore loaded = newStore();
+		assertTrue(new AnswerJournal(database).replay(loaded, database).isEmpty());
+	}
+
+	private AnswerJournal appendRecords(Vocabulary voc) throws IOException {
+		return appendRecords(AnswerJournal.record(voc));
+	}
+
+	private AnswerJournal appendRecords(byte[]... records) throws IOException {
+		AnswerJournal journal = new AnswerJournal(database);
+		for (byte[] record : records) {
+			journal.append(ByteBuffer.wrap(record), database);
+		}
+		return journal;
+	}
+
+	private static VocabularyStore newStore() {
+		VocabularyStore vocs = new VocabularyStore();
+		vocs.add("house", "Haus", "", 1500000000000L, 0, 0, 0, 0);
+		vocs.add("tree", "Baum", "", 1500000000000L, 0, 0, 0, 0);
+		return vocs;
+	}
+}